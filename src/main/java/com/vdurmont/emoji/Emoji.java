@@ -1,24 +1,47 @@
 package com.vdurmont.emoji;
 
 import java.io.UnsupportedEncodingException;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * This class represents an emoji.<br>
  * <br>
- * This object is immutable so it can be used safely in a multithreaded context.
+ * The state visible through the public methods never changes, so an emoji
+ * can be used safely in a multithreaded context. Its fields are set once:
+ * the ordinal when the {@link EmojiManager} loads it, before it is
+ * published, then the description, the tags and the output forms on first
+ * use, without locking. Two threads racing on them can only compute the same
+ * values twice.
  *
  * @author Vincent DURMONT [vdurmont@gmail.com]
  */
 public class Emoji {
-  private final String description;
+  // The output forms cached by getOutputForm, each one followed by the
+  // fitzpatrick modifier when it is given
+  static final int FORM_ALIAS = 0; // ":alias:" or ":alias|type_x:"
+  static final int FORM_ALIAS_AND_UNICODE = 1; // ":alias:" + modifier
+  static final int FORM_HTML_DECIMAL = 2;
+  static final int FORM_HTML_HEXADECIMAL = 3;
+  static final int FORM_UNICODE = 4;
+  private static final int FORM_COUNT = 5;
+  private static final int FITZPATRICK_SLOTS = Fitzpatrick.values().length + 1;
+
   private final boolean supportsFitzpatrick;
   private final List<String> aliases;
-  private final List<String> tags;
   private final String unicode;
-  private final String htmlDec;
-  private final String htmlHex;
+  // The description and the tags. For the emojis of a database snapshot,
+  // they are read from the metadata shard the first time one of them is
+  // needed. The race between two threads setting it is benign: the shard
+  // returns the same instance, whose fields are final.
+  private Metadata metadata;
+  private final EmojiDatabase.MetadataShard metadataShard;
+  // Built on first use, including the html representations that most
+  // applications never ask for. The race between two threads filling it is
+  // benign: both compute the same immutable Strings.
+  private String[] outputForms;
+  // Dense index given by the EmojiManager when it loads the emojis, -1 for
+  // the emojis created elsewhere
+  private int ordinal = -1;
 
   /**
    * Constructor for the Emoji.
@@ -36,43 +59,82 @@ public class Emoji {
     List<String> tags,
     byte... bytes
   ) {
-    this.description = description;
-    this.supportsFitzpatrick = supportsFitzpatrick;
-    this.aliases = Collections.unmodifiableList(aliases);
-    this.tags = Collections.unmodifiableList(tags);
-
-    int count = 0;
-    try {
-      this.unicode = new String(bytes, "UTF-8");
-      int stringLength = getUnicode().length();
-      String[] pointCodes = new String[stringLength];
-      String[] pointCodesHex = new String[stringLength];
+    this(description, supportsFitzpatrick, aliases, tags, toUnicode(bytes));
+  }
 
-      for (int offset = 0; offset < stringLength; ) {
-        final int codePoint = getUnicode().codePointAt(offset);
+  /**
+   * Constructor for the emojis whose unicode is already decoded, used by the
+   * loader to avoid a round trip through the UTF-8 bytes.
+   *
+   * @param description         The description of the emoji
+   * @param supportsFitzpatrick Whether the emoji supports Fitzpatrick modifiers
+   * @param aliases             the aliases for this emoji
+   * @param tags                the tags associated with this emoji
+   * @param unicode             the unicode representation of the emoji
+   */
+  Emoji(
+    String description,
+    boolean supportsFitzpatrick,
+    List<String> aliases,
+    List<String> tags,
+    String unicode
+  ) {
+    this.supportsFitzpatrick = supportsFitzpatrick;
+    this.aliases = ImmutableArrayList.copyOf(aliases);
+    this.unicode = unicode;
+    this.metadata = new Metadata(description, tags);
+    this.metadataShard = null;
+  }
 
-        pointCodes[count] = String.format("&#%d;", codePoint);
-        pointCodesHex[count++] = String.format("&#x%x;", codePoint);
+  /**
+   * Constructor for the emojis of a database snapshot, whose description and
+   * tags are loaded from the metadata shard on first use.
+   *
+   * @param metadataShard       the shard holding the description and tags
+   * @param supportsFitzpatrick Whether the emoji supports Fitzpatrick modifiers
+   * @param aliases             the aliases for this emoji
+   * @param unicode             the unicode representation of the emoji
+   */
+  Emoji(
+    EmojiDatabase.MetadataShard metadataShard,
+    boolean supportsFitzpatrick,
+    List<String> aliases,
+    String unicode
+  ) {
+    this.supportsFitzpatrick = supportsFitzpatrick;
+    this.aliases = ImmutableArrayList.copyOf(aliases);
+    this.unicode = unicode;
+    this.metadataShard = metadataShard;
+  }
 
-        offset += Character.charCount(codePoint);
-      }
-      this.htmlDec = stringJoin(pointCodes, count);
-      this.htmlHex = stringJoin(pointCodesHex, count);
+  private static String toUnicode(byte[] bytes) {
+    try {
+      return new String(bytes, "UTF-8");
     } catch (UnsupportedEncodingException e) {
       throw new RuntimeException(e);
     }
   }
 
   /**
-   * Method to replace String.join, since it was only introduced in java8
-   * @param array the array to be concatenated
-   * @return concatenated String
+   * Builds the html representation of the unicode, "&amp;#128516;" or
+   * "&amp;#x1f604;", in a single builder.
    */
-  private String stringJoin(String[] array, int count){
-    String joined = "";
-    for(int i = 0; i < count; i++)
-      joined += array[i];
-    return joined;
+  private String buildHtml(boolean hexadecimal) {
+    // "&#x" + 6 hexadecimal digits + ";" is the longest code point, and a
+    // code point is at least one char
+    StringBuilder sb = new StringBuilder(unicode.length() * 10);
+    for (int offset = 0; offset < unicode.length(); ) {
+      int codePoint = unicode.codePointAt(offset);
+      sb.append(hexadecimal ? "&#x" : "&#");
+      sb.append(
+        hexadecimal
+          ? Integer.toHexString(codePoint)
+          : Integer.toString(codePoint)
+      );
+      sb.append(';');
+      offset += Character.charCount(codePoint);
+    }
+    return sb.toString();
   }
 
   /**
@@ -81,7 +143,7 @@ public class Emoji {
    * @return the description
    */
   public String getDescription() {
-    return this.description;
+    return metadata().description;
   }
 
   /**
@@ -108,7 +170,16 @@ public class Emoji {
    * @return the tags (unmodifiable)
    */
   public List<String> getTags() {
-    return this.tags;
+    return metadata().tags;
+  }
+
+  private Metadata metadata() {
+    Metadata metadata = this.metadata;
+    if (metadata == null) {
+      metadata = metadataShard.get(ordinal);
+      this.metadata = metadata;
+    }
+    return metadata;
   }
 
   /**
@@ -138,10 +209,75 @@ public class Emoji {
         "Cannot get the unicode with a fitzpatrick modifier, " +
         "the emoji doesn't support fitzpatrick."
       );
-    } else if (fitzpatrick == null) {
-      return this.getUnicode();
     }
-    return this.getUnicode() + fitzpatrick.unicode;
+    return getOutputForm(FORM_UNICODE, fitzpatrick);
+  }
+
+  /**
+   * Returns one of the representations written by the {@link EmojiParser},
+   * followed by the given fitzpatrick modifier. The Strings are built once
+   * and cached, so that the parser only has to append them.
+   *
+   * @param form        one of the FORM_* constants
+   * @param fitzpatrick the fitzpatrick modifier or null
+   *
+   * @return the representation of the emoji
+   */
+  String getOutputForm(int form, Fitzpatrick fitzpatrick) {
+    String[] forms = outputForms;
+    if (forms == null) {
+      forms = new String[FORM_COUNT * FITZPATRICK_SLOTS];
+      outputForms = forms;
+    }
+    int index = form * FITZPATRICK_SLOTS +
+      (fitzpatrick == null ? 0 : fitzpatrick.ordinal() + 1);
+    String result = forms[index];
+    if (result == null) {
+      result = buildOutputForm(form, fitzpatrick);
+      forms[index] = result;
+    }
+    return result;
+  }
+
+  private String buildOutputForm(int form, Fitzpatrick fitzpatrick) {
+    String base;
+    switch (form) {
+      case FORM_ALIAS:
+        if (fitzpatrick != null) {
+          return ":" + aliases.get(0) + "|" + fitzpatrick.type + ":";
+        }
+      case FORM_ALIAS_AND_UNICODE:
+        base = ":" + aliases.get(0) + ":";
+        break;
+      case FORM_HTML_DECIMAL:
+        base = fitzpatrick == null
+          ? buildHtml(false)
+          : getOutputForm(FORM_HTML_DECIMAL, null);
+        break;
+      case FORM_HTML_HEXADECIMAL:
+        base = fitzpatrick == null
+          ? buildHtml(true)
+          : getOutputForm(FORM_HTML_HEXADECIMAL, null);
+        break;
+      default:
+        base = unicode;
+        break;
+    }
+    return fitzpatrick == null ? base : base + fitzpatrick.unicode;
+  }
+
+  /**
+   * Returns the index of the emoji among the emojis loaded by the
+   * {@link EmojiManager}, used by {@link EmojiSet} and {@link EmojiMap}.
+   *
+   * @return the ordinal, -1 if the emoji was not loaded by the EmojiManager
+   */
+  int ordinal() {
+    return this.ordinal;
+  }
+
+  void setOrdinal(int ordinal) {
+    this.ordinal = ordinal;
   }
 
   /**
@@ -150,7 +286,7 @@ public class Emoji {
    * @return the HTML decimal representation
    */
   public String getHtmlDecimal() {
-    return this.htmlDec;
+    return getOutputForm(FORM_HTML_DECIMAL, null);
   }
 
   /**
@@ -169,7 +305,7 @@ public class Emoji {
    * @return the HTML hexadecimal representation
    */
   public String getHtmlHexadecimal() {
-    return this.htmlHex;
+    return getOutputForm(FORM_HTML_HEXADECIMAL, null);
   }
 
   @Override
@@ -202,13 +338,27 @@ public class Emoji {
   @Override
   public String toString() {
     return "Emoji{" +
-      "description='" + description + '\'' +
+      "description='" + getDescription() + '\'' +
       ", supportsFitzpatrick=" + supportsFitzpatrick +
       ", aliases=" + aliases +
-      ", tags=" + tags +
+      ", tags=" + getTags() +
       ", unicode='" + unicode + '\'' +
-      ", htmlDec='" + htmlDec + '\'' +
-      ", htmlHex='" + htmlHex + '\'' +
+      ", htmlDec='" + getHtmlDecimal() + '\'' +
+      ", htmlHex='" + getHtmlHexadecimal() + '\'' +
       '}';
   }
+
+  /**
+   * The description and the tags of an emoji, that only the applications
+   * searching or displaying the emojis need.
+   */
+  static final class Metadata {
+    private final String description;
+    private final List<String> tags;
+
+    Metadata(String description, List<String> tags) {
+      this.description = description;
+      this.tags = ImmutableArrayList.copyOf(tags);
+    }
+  }
 }
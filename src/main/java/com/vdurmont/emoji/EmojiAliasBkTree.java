@@ -0,0 +1,201 @@
+package com.vdurmont.emoji;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BK-tree over the aliases of the emojis, to find the aliases within a given
+ * Levenshtein distance of a misspelled one.<br>
+ * <br>
+ * Each child of a node is stored with its distance to the node. Since the
+ * Levenshtein distance is a metric, the aliases within distance k of the
+ * query can only be below the children whose distance is in [d - k, d + k],
+ * d being the distance between the query and the node: most of the tree is
+ * never visited.
+ */
+class EmojiAliasBkTree {
+  private final Node root;
+
+  EmojiAliasBkTree(Map<String, Emoji> emojisByAlias) {
+    // Sorted so that the shape of the tree does not depend on the map order
+    String[] aliases = emojisByAlias.keySet().toArray(new String[0]);
+    Arrays.sort(aliases);
+    Node root = null;
+    Distance levenshtein = new Distance(0);
+    for (String alias : aliases) {
+      Node node = new Node(alias, emojisByAlias.get(alias));
+      if (root == null) {
+        root = node;
+      } else {
+        root.add(node, levenshtein);
+      }
+    }
+    this.root = root;
+  }
+
+  /**
+   * Returns the emojis with an alias within the given distance of the given
+   * alias, the closest ones first, then in the order of their aliases.
+   *
+   * @param alias       the alias to search
+   * @param maxDistance the maximum Levenshtein distance
+   *
+   * @return the emojis, each one only once
+   */
+  List<Emoji> search(String alias, int maxDistance) {
+    List<Match> found = new ArrayList<Match>();
+    if (root != null && maxDistance >= 0) {
+      root.search(alias, maxDistance, new Distance(alias.length()), found);
+    }
+
+    Collections.sort(found, new Comparator<Match>() {
+      public int compare(Match m1, Match m2) {
+        int result = m1.distance - m2.distance;
+        return result != 0 ? result : m1.node.alias.compareTo(m2.node.alias);
+      }
+    });
+    List<Emoji> result = new ArrayList<Emoji>(found.size());
+    EmojiSet seen = new EmojiSet();
+    for (Match match : found) {
+      if (seen.add(match.node.emoji)) {
+        result.add(match.node.emoji);
+      }
+    }
+    return result;
+  }
+
+  private static class Node {
+    private static final int[] NO_DISTANCES = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final String alias;
+    private final Emoji emoji;
+    // The distances to the children, sorted, with the children at the same
+    // indices
+    private int[] distances = NO_DISTANCES;
+    private Node[] children = NO_CHILDREN;
+
+    private Node(String alias, Emoji emoji) {
+      this.alias = alias;
+      this.emoji = emoji;
+    }
+
+    private void add(Node node, Distance levenshtein) {
+      Node tree = this;
+      while (true) {
+        int d = levenshtein.between(node.alias, tree.alias, Integer.MAX_VALUE);
+        int index = Arrays.binarySearch(tree.distances, d);
+        if (index >= 0) {
+          tree = tree.children[index];
+          continue;
+        }
+        index = -index - 1;
+
+        int[] newDistances = new int[tree.distances.length + 1];
+        Node[] newChildren = new Node[tree.children.length + 1];
+        System.arraycopy(tree.distances, 0, newDistances, 0, index);
+        System.arraycopy(tree.children, 0, newChildren, 0, index);
+        newDistances[index] = d;
+        newChildren[index] = node;
+        System.arraycopy(
+          tree.distances, index, newDistances, index + 1,
+          tree.distances.length - index
+        );
+        System.arraycopy(
+          tree.children, index, newChildren, index + 1,
+          tree.children.length - index
+        );
+        tree.distances = newDistances;
+        tree.children = newChildren;
+        return;
+      }
+    }
+
+    private void search(
+      String query,
+      int maxDistance,
+      Distance levenshtein,
+      List<Match> found
+    ) {
+      // Beyond this distance, neither the node nor its children can match
+      int limit = maxDistance +
+        (distances.length == 0 ? 0 : distances[distances.length - 1]);
+      int d = levenshtein.between(query, alias, limit);
+      if (d <= maxDistance) {
+        found.add(new Match(this, d));
+      }
+      for (int i = 0; i < distances.length; i++) {
+        if (distances[i] >= d - maxDistance && distances[i] <= d + maxDistance) {
+          children[i].search(query, maxDistance, levenshtein, found);
+        }
+      }
+    }
+  }
+
+  private static class Match {
+    private final Node node;
+    private final int distance;
+
+    private Match(Node node, int distance) {
+      this.node = node;
+      this.distance = distance;
+    }
+  }
+
+  /**
+   * Computes Levenshtein distances with two rows that are reused between the
+   * calls, grown when a longer string comes. The computation stops as soon as
+   * the distance is known to exceed a limit.
+   */
+  private static class Distance {
+    private int[] previous;
+    private int[] current;
+
+    private Distance(int length) {
+      this.previous = new int[length + 1];
+      this.current = new int[length + 1];
+    }
+
+    /**
+     * Returns the distance between the strings, or a value greater than the
+     * limit if the distance is greater than the limit.
+     */
+    private int between(String s1, String s2, int limit) {
+      if (Math.abs(s1.length() - s2.length()) > limit) {
+        return limit + 1;
+      }
+      if (previous.length < s2.length() + 1) {
+        previous = new int[s2.length() + 1];
+        current = new int[s2.length() + 1];
+      }
+      for (int j = 0; j <= s2.length(); j++) {
+        previous[j] = j;
+      }
+      for (int i = 1; i <= s1.length(); i++) {
+        current[0] = i;
+        int rowMin = i;
+        char c = s1.charAt(i - 1);
+        for (int j = 1; j <= s2.length(); j++) {
+          int substitution = previous[j - 1] + (c == s2.charAt(j - 1) ? 0 : 1);
+          current[j] = Math.min(
+            substitution,
+            Math.min(previous[j] + 1, current[j - 1] + 1)
+          );
+          rowMin = Math.min(rowMin, current[j]);
+        }
+        if (rowMin > limit) {
+          // The distance is at least the minimum of any row
+          return limit + 1;
+        }
+        int[] row = previous;
+        previous = current;
+        current = row;
+      }
+      return previous[s2.length()];
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.vdurmont.emoji;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the emojis whose aliases start with a prefix. The aliases are kept in
+ * a sorted array, so the aliases starting with a prefix are a contiguous
+ * range found with a binary search.
+ */
+class EmojiAliasIndex {
+  private final String[] aliases;
+  // The emoji of each alias, at the same index
+  private final Emoji[] emojis;
+
+  EmojiAliasIndex(Map<String, Emoji> emojisByAlias) {
+    this.aliases = emojisByAlias.keySet().toArray(new String[0]);
+    Arrays.sort(this.aliases);
+    this.emojis = new Emoji[aliases.length];
+    for (int i = 0; i < aliases.length; i++) {
+      emojis[i] = emojisByAlias.get(aliases[i]);
+    }
+  }
+
+  /**
+   * Returns the first emojis, in the order of their aliases, with an alias
+   * starting with the given prefix.
+   *
+   * @param prefix the prefix of the aliases
+   * @param limit  the maximum number of emojis to return
+   *
+   * @return the emojis, each one only once
+   */
+  List<Emoji> getForPrefix(String prefix, int limit) {
+    if (limit <= 0) {
+      return new ArrayList<Emoji>();
+    }
+
+    List<Emoji> result = new ArrayList<Emoji>(Math.min(limit, 16));
+    EmojiSet seen = new EmojiSet();
+    int end = getRangeEnd(prefix);
+    for (int i = getRangeStart(prefix); i < end && result.size() < limit; i++) {
+      if (seen.add(emojis[i])) {
+        result.add(emojis[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the best emojis according to the ranking, with an alias starting
+   * with the given prefix. The emojis ranked equally are in the order of
+   * their aliases.
+   *
+   * @param prefix  the prefix of the aliases
+   * @param limit   the maximum number of emojis to return
+   * @param ranking sorts the emojis, the best ones first
+   *
+   * @return the emojis, each one only once
+   */
+  List<Emoji> getForPrefix(
+    String prefix,
+    int limit,
+    final Comparator<? super Emoji> ranking
+  ) {
+    if (limit <= 0) {
+      return new ArrayList<Emoji>();
+    }
+
+    // The alias indices, ranked by emoji then by alias
+    Comparator<Integer> order = new Comparator<Integer>() {
+      public int compare(Integer i1, Integer i2) {
+        int result = ranking.compare(emojis[i1], emojis[i2]);
+        return result != 0 ? result : i1 - i2;
+      }
+    };
+
+    // Keeps the best candidates, with the worst one at the head
+    PriorityQueue<Integer> best = new PriorityQueue<Integer>(
+      Math.min(limit, 16),
+      Collections.reverseOrder(order)
+    );
+    EmojiSet seen = new EmojiSet();
+    int end = getRangeEnd(prefix);
+    for (int i = getRangeStart(prefix); i < end; i++) {
+      if (!seen.add(emojis[i])) {
+        continue;
+      }
+      if (best.size() < limit) {
+        best.add(i);
+      } else if (order.compare(i, best.peek()) < 0) {
+        best.poll();
+        best.add(i);
+      }
+    }
+
+    Integer[] indices = best.toArray(new Integer[best.size()]);
+    Arrays.sort(indices, order);
+    List<Emoji> result = new ArrayList<Emoji>(indices.length);
+    for (Integer index : indices) {
+      result.add(emojis[index]);
+    }
+    return result;
+  }
+
+  private int getRangeStart(String prefix) {
+    int index = Arrays.binarySearch(aliases, prefix);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  private int getRangeEnd(String prefix) {
+    int low = getRangeStart(prefix);
+    int high = aliases.length;
+    // The aliases starting with the prefix are before the first one that
+    // does not
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (aliases[middle].startsWith(prefix)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,480 @@
+package com.vdurmont.emoji;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The loaded emojis with the structures the {@link EmojiManager} builds on
+ * them: the tries, the emojis of each tag and the emojis sorted from the
+ * longest unicode to the shortest.<br>
+ * <br>
+ * It is built either from the JSON database, or from a binary snapshot of
+ * all these structures generated at build time by the
+ * {@link EmojiDatabaseGenerator}.
+ * Reading the snapshot is a single bulk read followed by array copies: there
+ * is nothing to parse, no tree to build and nothing to sort.<br>
+ * <br>
+ * The snapshot is split in two shards. The core shard holds what the
+ * matching and the alias lookups need, and is read at startup. The metadata
+ * shard holds the descriptions and the tags, and is only read the first time
+ * one of them is asked for, so that the applications that only convert or
+ * remove emojis never load them.<br>
+ * <br>
+ * Core shard format, big-endian:
+ * <pre>
+ * int      magic, version
+ * strings  int count, int char count, int[count] ends, char[] chars
+ * emojis   int count, then for each emoji: int unicode, byte supports
+ *          fitzpatrick, int alias count, int[] aliases
+ * int[]    ordinals sorted from the longest unicode to the shortest
+ * tries    the unicode trie then the alias trie, see EmojiTrie.write
+ * </pre>
+ * Metadata shard format:
+ * <pre>
+ * int      magic, version
+ * strings  same as the core shard
+ * emojis   int count, then for each emoji: int description (-1 if none),
+ *          int tag count, int[] tags
+ * tags     int count, then for each tag: int tag, int count, int[] ordinals
+ * </pre>
+ * The strings are referenced by their index in the pool of their shard, so
+ * each distinct string is stored and created once.
+ */
+final class EmojiDatabase {
+  static final String JSON_PATH = "/emojis.json";
+  static final String SNAPSHOT_PATH = "/emojis.bin";
+  static final String METADATA_PATH = "/emojis-metadata.bin";
+
+  private static final int MAGIC = 0x454d4f4a; // "EMOJ"
+  private static final int METADATA_MAGIC = 0x454d4d44; // "EMMD"
+  private static final int VERSION = 2;
+
+  final Emoji[] emojisByOrdinal;
+  final List<Emoji> emojisByLength;
+  final EmojiTrie emojiTrie;
+  final EmojiTrie aliasTrie;
+  // Null when the emojis were built with their description and tags
+  private final MetadataShard metadataShard;
+  // Computed on first use when there is no metadata shard, guarded by this
+  private Map<String, int[]> ordinalsByTag;
+
+  private EmojiDatabase(
+    Emoji[] emojisByOrdinal,
+    List<Emoji> emojisByLength,
+    EmojiTrie emojiTrie,
+    EmojiTrie aliasTrie,
+    MetadataShard metadataShard
+  ) {
+    this.emojisByOrdinal = emojisByOrdinal;
+    this.emojisByLength = emojisByLength;
+    this.emojiTrie = emojiTrie;
+    this.aliasTrie = aliasTrie;
+    this.metadataShard = metadataShard;
+  }
+
+  /**
+   * Loads the database from the snapshot in the classpath, or from the JSON
+   * database when there is no usable snapshot.
+   *
+   * @return the database
+   * @throws IOException if the databases cannot be read
+   */
+  static EmojiDatabase load() throws IOException {
+    InputStream snapshot =
+      EmojiDatabase.class.getResourceAsStream(SNAPSHOT_PATH);
+    if (snapshot != null) {
+      EmojiDatabase database = read(snapshot, new Shard() {
+        public ByteBuffer open() throws IOException {
+          InputStream metadata =
+            EmojiDatabase.class.getResourceAsStream(METADATA_PATH);
+          if (metadata == null) {
+            throw new IOException("Missing resource " + METADATA_PATH);
+          }
+          return ByteBuffer.wrap(readFully(metadata));
+        }
+      });
+      if (database != null) {
+        return database;
+      }
+    }
+    InputStream json = EmojiDatabase.class.getResourceAsStream(JSON_PATH);
+    return fromEmojis(EmojiLoader.loadEmojis(json));
+  }
+
+  /**
+   * Builds the database from a list of emojis, giving them their ordinals.
+   *
+   * @param emojis the emojis, in the order of their ordinals
+   *
+   * @return the database
+   */
+  static EmojiDatabase fromEmojis(List<Emoji> emojis) {
+    Emoji[] emojisByOrdinal = emojis.toArray(new Emoji[emojis.size()]);
+    for (int i = 0; i < emojisByOrdinal.length; i++) {
+      emojisByOrdinal[i].setOrdinal(i);
+    }
+
+    Emoji[] emojisByLength = emojisByOrdinal.clone();
+    Arrays.sort(emojisByLength, new Comparator<Emoji>() {
+      public int compare(Emoji e1, Emoji e2) {
+        return e2.getUnicode().length() - e1.getUnicode().length();
+      }
+    });
+
+    return new EmojiDatabase(
+      emojisByOrdinal,
+      ImmutableArrayList.<Emoji>wrap(emojisByLength),
+      new EmojiTrie(emojis),
+      EmojiTrie.aliases(emojis),
+      null
+    );
+  }
+
+  /**
+   * Reads the core shard of a snapshot written by
+   * {@link #write(OutputStream, OutputStream)}.
+   *
+   * @param stream   the core shard, closed once read
+   * @param metadata opens the metadata shard when it is first needed
+   *
+   * @return the database, null if the snapshot was written by another
+   * version of the format
+   * @throws IOException if the snapshot cannot be read
+   */
+  static EmojiDatabase read(
+    InputStream stream,
+    Shard metadata
+  ) throws IOException {
+    return read(ByteBuffer.wrap(readFully(stream)), metadata);
+  }
+
+  private static EmojiDatabase read(ByteBuffer buffer, Shard metadata) {
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      return null;
+    }
+
+    String[] strings = readStrings(buffer);
+
+    Emoji[] emojisByOrdinal = new Emoji[buffer.getInt()];
+    MetadataShard metadataShard =
+      new MetadataShard(metadata, emojisByOrdinal.length);
+    for (int i = 0; i < emojisByOrdinal.length; i++) {
+      String unicode = strings[buffer.getInt()];
+      boolean supportsFitzpatrick = buffer.get() != 0;
+      List<String> aliases = readStringList(buffer, strings);
+      emojisByOrdinal[i] =
+        new Emoji(metadataShard, supportsFitzpatrick, aliases, unicode);
+      emojisByOrdinal[i].setOrdinal(i);
+    }
+
+    Emoji[] emojisByLength = new Emoji[emojisByOrdinal.length];
+    for (int i = 0; i < emojisByLength.length; i++) {
+      emojisByLength[i] = emojisByOrdinal[buffer.getInt()];
+    }
+
+    EmojiTrie emojiTrie = EmojiTrie.read(buffer, emojisByOrdinal);
+    EmojiTrie aliasTrie = EmojiTrie.read(buffer, emojisByOrdinal);
+    return new EmojiDatabase(
+      emojisByOrdinal,
+      ImmutableArrayList.<Emoji>wrap(emojisByLength),
+      emojiTrie,
+      aliasTrie,
+      metadataShard
+    );
+  }
+
+  /**
+   * Returns the ordinals of the emojis of each tag, in increasing order. The
+   * metadata shard is loaded if it was not already.
+   *
+   * @return the ordinals of the emojis by tag
+   */
+  Map<String, int[]> getOrdinalsByTag() {
+    if (metadataShard != null) {
+      return metadataShard.getOrdinalsByTag();
+    }
+    synchronized (this) {
+      if (ordinalsByTag == null) {
+        ordinalsByTag = indexTags(emojisByOrdinal);
+      }
+      return ordinalsByTag;
+    }
+  }
+
+  /**
+   * Tests if the descriptions and the tags of the emojis are loaded.
+   *
+   * @return false if the metadata shard was not loaded yet
+   */
+  boolean isMetadataLoaded() {
+    return metadataShard == null || metadataShard.isLoaded();
+  }
+
+  private static Map<String, int[]> indexTags(Emoji[] emojisByOrdinal) {
+    Map<String, List<Integer>> tags =
+      new LinkedHashMap<String, List<Integer>>();
+    for (int ordinal = 0; ordinal < emojisByOrdinal.length; ordinal++) {
+      for (String tag : emojisByOrdinal[ordinal].getTags()) {
+        List<Integer> ordinals = tags.get(tag);
+        if (ordinals == null) {
+          ordinals = new ArrayList<Integer>();
+          tags.put(tag, ordinals);
+        }
+        ordinals.add(ordinal);
+      }
+    }
+    Map<String, int[]> ordinalsByTag = new LinkedHashMap<String, int[]>();
+    for (Map.Entry<String, List<Integer>> tag : tags.entrySet()) {
+      int[] ordinals = new int[tag.getValue().size()];
+      for (int i = 0; i < ordinals.length; i++) {
+        ordinals[i] = tag.getValue().get(i);
+      }
+      ordinalsByTag.put(tag.getKey(), ordinals);
+    }
+    return ordinalsByTag;
+  }
+
+  /**
+   * Writes the shards of the snapshot of the database.
+   *
+   * @param core     the stream of the core shard, not closed
+   * @param metadata the stream of the metadata shard, not closed
+   *
+   * @throws IOException if a stream cannot be written
+   */
+  void write(OutputStream core, OutputStream metadata) throws IOException {
+    DataOutputStream out = new DataOutputStream(core);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    Map<String, Integer> indices = new LinkedHashMap<String, Integer>();
+    for (Emoji emoji : emojisByOrdinal) {
+      addString(indices, emoji.getUnicode());
+      for (String alias : emoji.getAliases()) {
+        addString(indices, alias);
+      }
+    }
+    writeStrings(out, indices);
+    out.writeInt(emojisByOrdinal.length);
+    for (Emoji emoji : emojisByOrdinal) {
+      out.writeInt(indices.get(emoji.getUnicode()));
+      out.writeByte(emoji.supportsFitzpatrick() ? 1 : 0);
+      writeStringList(out, indices, emoji.getAliases());
+    }
+    for (Emoji emoji : emojisByLength) {
+      out.writeInt(emoji.ordinal());
+    }
+    emojiTrie.write(out);
+    aliasTrie.write(out);
+    out.flush();
+
+    out = new DataOutputStream(metadata);
+    out.writeInt(METADATA_MAGIC);
+    out.writeInt(VERSION);
+    indices.clear();
+    for (Emoji emoji : emojisByOrdinal) {
+      if (emoji.getDescription() != null) {
+        addString(indices, emoji.getDescription());
+      }
+      for (String tag : emoji.getTags()) {
+        addString(indices, tag);
+      }
+    }
+    writeStrings(out, indices);
+    out.writeInt(emojisByOrdinal.length);
+    for (Emoji emoji : emojisByOrdinal) {
+      out.writeInt(
+        emoji.getDescription() == null
+          ? -1
+          : indices.get(emoji.getDescription())
+      );
+      writeStringList(out, indices, emoji.getTags());
+    }
+    Map<String, int[]> ordinalsByTag = getOrdinalsByTag();
+    out.writeInt(ordinalsByTag.size());
+    for (Map.Entry<String, int[]> tag : ordinalsByTag.entrySet()) {
+      out.writeInt(indices.get(tag.getKey()));
+      writeInts(out, tag.getValue());
+    }
+    out.flush();
+  }
+
+  /**
+   * Opens the bytes of a shard.
+   */
+  interface Shard {
+    ByteBuffer open() throws IOException;
+  }
+
+  /**
+   * The descriptions and the tags of the emojis of a snapshot, read from the
+   * metadata shard the first time they are needed.
+   */
+  static final class MetadataShard {
+    private final Shard shard;
+    private final int emojiCount;
+    // Guarded by this
+    private Emoji.Metadata[] metadata;
+    private Map<String, int[]> ordinalsByTag;
+
+    private MetadataShard(Shard shard, int emojiCount) {
+      this.shard = shard;
+      this.emojiCount = emojiCount;
+    }
+
+    synchronized Emoji.Metadata get(int ordinal) {
+      load();
+      return metadata[ordinal];
+    }
+
+    synchronized Map<String, int[]> getOrdinalsByTag() {
+      load();
+      return ordinalsByTag;
+    }
+
+    synchronized boolean isLoaded() {
+      return metadata != null;
+    }
+
+    private void load() {
+      if (metadata != null) {
+        return;
+      }
+      try {
+        ByteBuffer buffer = shard.open();
+        if (buffer.getInt() != METADATA_MAGIC || buffer.getInt() != VERSION) {
+          throw new IOException("Unsupported emoji metadata shard");
+        }
+        String[] strings = readStrings(buffer);
+        if (buffer.getInt() != emojiCount) {
+          throw new IOException(
+            "The emoji metadata shard does not match the core shard"
+          );
+        }
+        Emoji.Metadata[] metadata = new Emoji.Metadata[emojiCount];
+        for (int i = 0; i < emojiCount; i++) {
+          int description = buffer.getInt();
+          metadata[i] = new Emoji.Metadata(
+            description < 0 ? null : strings[description],
+            readStringList(buffer, strings)
+          );
+        }
+        int tagCount = buffer.getInt();
+        Map<String, int[]> ordinalsByTag =
+          new LinkedHashMap<String, int[]>(tagCount * 4 / 3 + 1);
+        for (int i = 0; i < tagCount; i++) {
+          String tag = strings[buffer.getInt()];
+          ordinalsByTag.put(tag, readInts(buffer));
+        }
+        this.ordinalsByTag = ordinalsByTag;
+        this.metadata = metadata;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private static byte[] readFully(InputStream stream) throws IOException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+      byte[] buffer = new byte[16 * 1024];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      return bytes.toByteArray();
+    } finally {
+      stream.close();
+    }
+  }
+
+  private static String[] readStrings(ByteBuffer buffer) {
+    String[] strings = new String[buffer.getInt()];
+    char[] chars = new char[buffer.getInt()];
+    int[] ends = new int[strings.length];
+    buffer.asIntBuffer().get(ends);
+    buffer.position(buffer.position() + 4 * ends.length);
+    buffer.asCharBuffer().get(chars);
+    buffer.position(buffer.position() + 2 * chars.length);
+    int start = 0;
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = new String(chars, start, ends[i] - start);
+      start = ends[i];
+    }
+    return strings;
+  }
+
+  private static List<String> readStringList(
+    ByteBuffer buffer,
+    String[] strings
+  ) {
+    String[] list = new String[buffer.getInt()];
+    for (int i = 0; i < list.length; i++) {
+      list[i] = strings[buffer.getInt()];
+    }
+    return ImmutableArrayList.wrap(list);
+  }
+
+  private static int[] readInts(ByteBuffer buffer) {
+    int[] ints = new int[buffer.getInt()];
+    buffer.asIntBuffer().get(ints);
+    buffer.position(buffer.position() + 4 * ints.length);
+    return ints;
+  }
+
+  private static void writeStrings(
+    DataOutputStream out,
+    Map<String, Integer> indices
+  ) throws IOException {
+    out.writeInt(indices.size());
+    int charCount = 0;
+    for (String string : indices.keySet()) {
+      charCount += string.length();
+    }
+    out.writeInt(charCount);
+    int end = 0;
+    for (String string : indices.keySet()) {
+      end += string.length();
+      out.writeInt(end);
+    }
+    for (String string : indices.keySet()) {
+      out.writeChars(string);
+    }
+  }
+
+  private static void addString(Map<String, Integer> indices, String string) {
+    if (!indices.containsKey(string)) {
+      indices.put(string, indices.size());
+    }
+  }
+
+  private static void writeStringList(
+    DataOutputStream out,
+    Map<String, Integer> indices,
+    List<String> strings
+  ) throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      out.writeInt(indices.get(string));
+    }
+  }
+
+  private static void writeInts(
+    DataOutputStream out,
+    int[] ints
+  ) throws IOException {
+    out.writeInt(ints.length);
+    for (int i : ints) {
+      out.writeInt(i);
+    }
+  }
+}
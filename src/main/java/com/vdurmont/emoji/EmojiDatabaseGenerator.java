@@ -0,0 +1,49 @@
+package com.vdurmont.emoji;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Generates the snapshot of the JSON database loaded by the
+ * {@link EmojiDatabase}. It is only run by the build, in the process-classes
+ * phase, and is not part of the API.
+ */
+class EmojiDatabaseGenerator {
+  /**
+   * No need for a constructor, all the methods are static.
+   */
+  private EmojiDatabaseGenerator() {}
+
+  /**
+   * Generates the snapshot of a JSON database.
+   *
+   * @param args the path of the JSON database, then the paths of the core
+   *             and metadata shards of the snapshot
+   *
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException(
+        "Usage: EmojiDatabaseGenerator <emojis.json> <core shard> " +
+          "<metadata shard>"
+      );
+    }
+    InputStream json = new FileInputStream(args[0]);
+    EmojiDatabase database =
+      EmojiDatabase.fromEmojis(EmojiLoader.loadEmojis(json));
+    OutputStream core = new BufferedOutputStream(new FileOutputStream(args[1]));
+    OutputStream metadata =
+      new BufferedOutputStream(new FileOutputStream(args[2]));
+    try {
+      database.write(core, metadata);
+    } finally {
+      core.close();
+      metadata.close();
+    }
+  }
+}
@@ -0,0 +1,387 @@
+package com.vdurmont.emoji;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the JSON database of the emojis in a single pass over its UTF-8
+ * bytes, building the {@link Emoji}s as their objects are read.<br>
+ * <br>
+ * There is no document tree and no copy of the whole input: the bytes are
+ * decoded into a reusable char buffer, the keys are compared in place and the
+ * unknown fields are skipped without building anything. Only the values kept
+ * by the emojis become Strings, and the aliases and tags shared by several
+ * emojis ("face", "flag"...) are a single String instance.
+ */
+class EmojiJsonReader {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final InputStream stream;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  // Number of bytes of the stream before the buffer, for the error messages
+  private long offset;
+
+  // The content of the last string read
+  private char[] chars = new char[64];
+  private int length;
+
+  // The aliases and tags already read, to share their instances between the
+  // emojis. Local to the reader rather than String.intern(), so the strings
+  // do not outlive the emojis in the JVM-wide pool.
+  private final Map<String, String> pool = new HashMap<String, String>();
+
+  EmojiJsonReader(InputStream stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * Reads the JSON array of emojis. The objects without an "emoji" field are
+   * ignored.
+   *
+   * @return the emojis, in the order of the array
+   * @throws IOException if the stream cannot be read or is not valid JSON
+   */
+  List<Emoji> readEmojis() throws IOException {
+    List<Emoji> emojis = new ArrayList<Emoji>();
+    expect('[');
+    if (peek() == ']') {
+      read();
+      return emojis;
+    }
+    do {
+      Emoji emoji = readEmoji();
+      if (emoji != null) {
+        emojis.add(emoji);
+      }
+    } while (readSeparator(']'));
+    return emojis;
+  }
+
+  private Emoji readEmoji() throws IOException {
+    String unicode = null;
+    String description = null;
+    boolean supportsFitzpatrick = false;
+    List<String> aliases = null;
+    List<String> tags = null;
+
+    expect('{');
+    if (peek() == '}') {
+      read();
+      return null;
+    }
+    do {
+      expect('"');
+      readString();
+      expect(':');
+      if (isKey("emoji")) {
+        unicode = readStringValue();
+      } else if (isKey("description")) {
+        description = readStringValue();
+      } else if (isKey("supports_fitzpatrick")) {
+        supportsFitzpatrick = readBoolean();
+      } else if (isKey("aliases")) {
+        aliases = readStringArray();
+      } else if (isKey("tags")) {
+        tags = readStringArray();
+      } else {
+        skipValue();
+      }
+    } while (readSeparator('}'));
+
+    if (unicode == null) {
+      return null;
+    }
+    return new Emoji(
+      description,
+      supportsFitzpatrick,
+      aliases == null ? new ArrayList<String>(0) : aliases,
+      tags == null ? new ArrayList<String>(0) : tags,
+      unicode
+    );
+  }
+
+  /**
+   * Reads the "," before the next element of an array or object, or its
+   * closing char.
+   *
+   * @return true if there is another element
+   */
+  private boolean readSeparator(char close) throws IOException {
+    int c = read();
+    if (c == ',') {
+      return true;
+    }
+    if (c != close) {
+      throw error("expected ',' or '" + close + "'");
+    }
+    return false;
+  }
+
+  private String readStringValue() throws IOException {
+    expect('"');
+    readString();
+    return new String(chars, 0, length);
+  }
+
+  private String pooled(String string) {
+    String pooled = pool.get(string);
+    if (pooled == null) {
+      pool.put(string, string);
+      return string;
+    }
+    return pooled;
+  }
+
+  private List<String> readStringArray() throws IOException {
+    List<String> strings = new ArrayList<String>(4);
+    expect('[');
+    if (peek() == ']') {
+      read();
+      return strings;
+    }
+    do {
+      strings.add(pooled(readStringValue()));
+    } while (readSeparator(']'));
+    return strings;
+  }
+
+  private boolean readBoolean() throws IOException {
+    int c = peek();
+    if (c == 't') {
+      readLiteral("true");
+      return true;
+    }
+    readLiteral("false");
+    return false;
+  }
+
+  private void skipValue() throws IOException {
+    int c = peek();
+    switch (c) {
+      case '"':
+        read();
+        readString();
+        break;
+      case '[':
+        read();
+        if (peek() == ']') {
+          read();
+        } else {
+          do {
+            skipValue();
+          } while (readSeparator(']'));
+        }
+        break;
+      case '{':
+        read();
+        if (peek() == '}') {
+          read();
+        } else {
+          do {
+            expect('"');
+            readString();
+            expect(':');
+            skipValue();
+          } while (readSeparator('}'));
+        }
+        break;
+      case 't':
+        readLiteral("true");
+        break;
+      case 'f':
+        readLiteral("false");
+        break;
+      case 'n':
+        readLiteral("null");
+        break;
+      default:
+        if (c != '-' && (c < '0' || c > '9')) {
+          throw error("unexpected value");
+        }
+        // Number: only its chars have to be consumed
+        while (position < limit || fill()) {
+          c = buffer[position];
+          if (c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E' &&
+            (c < '0' || c > '9')) {
+            break;
+          }
+          position++;
+        }
+    }
+  }
+
+  private void readLiteral(String literal) throws IOException {
+    skipWhitespace();
+    for (int i = 0; i < literal.length(); i++) {
+      if (nextByte() != literal.charAt(i)) {
+        throw error("expected " + literal);
+      }
+    }
+  }
+
+  /**
+   * Reads the content of a string, after its opening quote, into the char
+   * buffer. The UTF-8 sequences and the escapes are decoded.
+   */
+  private void readString() throws IOException {
+    length = 0;
+    while (true) {
+      int b = nextByte();
+      if (b == '"') {
+        return;
+      }
+      if (b == '\\') {
+        append(readEscape());
+      } else if (b < 0x80) {
+        append((char) b);
+      } else if (b < 0xE0) {
+        append((char) (((b & 0x1F) << 6) | continuation()));
+      } else if (b < 0xF0) {
+        int c = ((b & 0x0F) << 12) | (continuation() << 6);
+        append((char) (c | continuation()));
+      } else {
+        int codePoint = ((b & 0x07) << 18) | (continuation() << 12);
+        codePoint |= continuation() << 6;
+        codePoint |= continuation();
+        codePoint -= 0x10000;
+        append((char) (0xD800 | (codePoint >>> 10)));
+        append((char) (0xDC00 | (codePoint & 0x3FF)));
+      }
+    }
+  }
+
+  private char readEscape() throws IOException {
+    int b = nextByte();
+    switch (b) {
+      case '"':
+      case '\\':
+      case '/':
+        return (char) b;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int c = 0;
+        for (int i = 0; i < 4; i++) {
+          int digit = Character.digit(nextByte(), 16);
+          if (digit < 0) {
+            throw error("invalid unicode escape");
+          }
+          c = (c << 4) | digit;
+        }
+        return (char) c;
+      default:
+        throw error("invalid escape");
+    }
+  }
+
+  private int continuation() throws IOException {
+    int b = nextByte();
+    if ((b & 0xC0) != 0x80) {
+      throw error("invalid UTF-8 sequence");
+    }
+    return b & 0x3F;
+  }
+
+  private void append(char c) {
+    if (length == chars.length) {
+      char[] newChars = new char[length * 2];
+      System.arraycopy(chars, 0, newChars, 0, length);
+      chars = newChars;
+    }
+    chars[length++] = c;
+  }
+
+  /**
+   * Tests if the last string read is the given key.
+   */
+  private boolean isKey(String key) {
+    if (key.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (chars[i] != key.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void expect(char expected) throws IOException {
+    if (read() != expected) {
+      throw error("expected '" + expected + "'");
+    }
+  }
+
+  /**
+   * Returns the next byte that is not a whitespace, without consuming it.
+   */
+  private int peek() throws IOException {
+    skipWhitespace();
+    if (position == limit && !fill()) {
+      throw error("unexpected end of input");
+    }
+    return buffer[position] & 0xFF;
+  }
+
+  /**
+   * Returns and consumes the next byte that is not a whitespace.
+   */
+  private int read() throws IOException {
+    skipWhitespace();
+    return nextByte();
+  }
+
+  private void skipWhitespace() throws IOException {
+    while (position < limit || fill()) {
+      byte b = buffer[position];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return;
+      }
+      position++;
+    }
+  }
+
+  private int nextByte() throws IOException {
+    if (position == limit && !fill()) {
+      throw error("unexpected end of input");
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Reads the next bytes of the stream in the buffer.
+   *
+   * @return false if the end of the stream is reached
+   */
+  private boolean fill() throws IOException {
+    offset += limit;
+    position = 0;
+    limit = 0;
+    int read = stream.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    limit = read;
+    return true;
+  }
+
+  private IOException error(String message) {
+    return new IOException(
+      "Invalid emoji database at byte " + (offset + position) + ": " + message
+    );
+  }
+}
@@ -3,14 +3,11 @@ package com.vdurmont.emoji;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * Loads the emojis from a JSON database.
@@ -25,7 +22,10 @@ public class EmojiLoader {
 
   /**
    * Loads a JSONArray of emojis from an InputStream, parses it and returns the
-   * associated list of {@link com.vdurmont.emoji.Emoji}s
+   * associated list of {@link com.vdurmont.emoji.Emoji}s.<br>
+   * <br>
+   * The stream is read in a single pass and the emojis are built as they are
+   * read, without loading the whole document in memory first.
    *
    * @param stream the stream of the JSONArray
    *
@@ -34,31 +34,11 @@ public class EmojiLoader {
    * the JSONArray
    */
   public static List<Emoji> loadEmojis(InputStream stream) throws IOException {
-    JSONArray emojisJSON = new JSONArray(inputStreamToString(stream));
-    List<Emoji> emojis = new ArrayList<Emoji>(emojisJSON.length());
-    for (int i = 0; i < emojisJSON.length(); i++) {
-      Emoji emoji = buildEmojiFromJSON(emojisJSON.getJSONObject(i));
-      if (emoji != null) {
-        emojis.add(emoji);
-      }
-    }
+    List<Emoji> emojis = new EmojiJsonReader(stream).readEmojis();
+    stream.close();
     return emojis;
   }
 
-  private static String inputStreamToString(
-    InputStream stream
-  ) throws IOException {
-    StringBuilder sb = new StringBuilder();
-    InputStreamReader isr = new InputStreamReader(stream, "UTF-8");
-    BufferedReader br = new BufferedReader(isr);
-    String read;
-    while((read = br.readLine()) != null) {
-      sb.append(read);
-    }
-    br.close();
-    return sb.toString();
-  }
-
   protected static Emoji buildEmojiFromJSON(
     JSONObject json
   ) throws UnsupportedEncodingException {
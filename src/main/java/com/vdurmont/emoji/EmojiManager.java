@@ -1,12 +1,11 @@
 package com.vdurmont.emoji;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,38 +16,28 @@ import java.util.Set;
  * @author Vincent DURMONT [vdurmont@gmail.com]
  */
 public class EmojiManager {
-  private static final String PATH = "/emojis.json";
   private static final Map<String, Emoji> EMOJIS_BY_ALIAS =
     new HashMap<String, Emoji>();
-  private static final Map<String, Set<Emoji>> EMOJIS_BY_TAG =
-    new HashMap<String, Set<Emoji>>();
+  private static final EmojiDatabase DATABASE;
+  private static final EmojiSet NO_EMOJIS;
   private static final List<Emoji> ALL_EMOJIS;
+  private static final Emoji[] EMOJIS_BY_ORDINAL;
   static final EmojiTrie EMOJI_TRIE;
+  static final EmojiTrie ALIAS_TRIE;
 
   static {
     try {
-      InputStream stream = EmojiLoader.class.getResourceAsStream(PATH);
-      List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
-      ALL_EMOJIS = emojis;
-      for (Emoji emoji : emojis) {
-        for (String tag : emoji.getTags()) {
-          if (EMOJIS_BY_TAG.get(tag) == null) {
-            EMOJIS_BY_TAG.put(tag, new HashSet<Emoji>());
-          }
-          EMOJIS_BY_TAG.get(tag).add(emoji);
-        }
+      DATABASE = EmojiDatabase.load();
+      EMOJIS_BY_ORDINAL = DATABASE.emojisByOrdinal;
+      ALL_EMOJIS = DATABASE.emojisByLength;
+      NO_EMOJIS = EmojiSet.unmodifiableOf(new int[0]);
+      for (Emoji emoji : EMOJIS_BY_ORDINAL) {
         for (String alias : emoji.getAliases()) {
           EMOJIS_BY_ALIAS.put(alias, emoji);
         }
       }
-
-      EMOJI_TRIE = new EmojiTrie(emojis);
-      Collections.sort(ALL_EMOJIS, new Comparator<Emoji>() {
-        public int compare(Emoji e1, Emoji e2) {
-          return e2.getUnicode().length() - e1.getUnicode().length();
-        }
-      });
-      stream.close();
+      EMOJI_TRIE = DATABASE.emojiTrie;
+      ALIAS_TRIE = DATABASE.aliasTrie;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -64,14 +53,24 @@ public class EmojiManager {
    *
    * @param tag the tag
    *
-   * @return the associated {@link com.vdurmont.emoji.Emoji}s, null if the tag
-   * is unknown
+   * @return the associated {@link com.vdurmont.emoji.Emoji}s (unmodifiable),
+   * null if the tag is unknown
    */
   public static Set<Emoji> getForTag(String tag) {
-    if (tag == null) {
-      return null;
-    }
-    return EMOJIS_BY_TAG.get(tag);
+    return TagIndexHolder.get(tag);
+  }
+
+  /**
+   * Returns the set of the emojis for a given tag, used by the
+   * {@link EmojiTagQuery}.
+   *
+   * @param tag the tag
+   *
+   * @return the associated emojis, an empty set if the tag is unknown
+   */
+  static EmojiSet getTagSet(String tag) {
+    EmojiSet set = TagIndexHolder.get(tag);
+    return set == null ? NO_EMOJIS : set;
   }
 
   /**
@@ -89,6 +88,159 @@ public class EmojiManager {
     return EMOJIS_BY_ALIAS.get(trimAlias(alias));
   }
 
+  /**
+   * Returns the emojis with an alias starting with the given prefix, in the
+   * alphabetical order of their aliases.<br>
+   * Example: <code>smi</code> gives the emojis for <code>smile</code>,
+   * <code>smile_cat</code>, <code>smiley</code>...
+   *
+   * @param prefix the beginning of the aliases, with or without a leading
+   *               ':'
+   * @param limit  the maximum number of emojis to return
+   *
+   * @return the emojis, each one only once
+   */
+  public static List<Emoji> getForAliasPrefix(String prefix, int limit) {
+    if (prefix == null) {
+      return new ArrayList<Emoji>();
+    }
+    return AliasIndexHolder.INDEX.getForPrefix(trimPrefix(prefix), limit);
+  }
+
+  /**
+   * Returns the best emojis according to the given ranking, among the emojis
+   * with an alias starting with the given prefix. The ranking can for
+   * example sort the emojis by decreasing popularity.
+   *
+   * @param prefix  the beginning of the aliases, with or without a leading
+   *                ':'
+   * @param limit   the maximum number of emojis to return
+   * @param ranking sorts the emojis, the best ones first. The emojis ranked
+   *                equally are in the alphabetical order of their aliases.
+   *
+   * @return the emojis, each one only once
+   */
+  public static List<Emoji> getForAliasPrefix(
+    String prefix,
+    int limit,
+    Comparator<? super Emoji> ranking
+  ) {
+    if (prefix == null) {
+      return new ArrayList<Emoji>();
+    }
+    return AliasIndexHolder.INDEX.getForPrefix(
+      trimPrefix(prefix),
+      limit,
+      ranking
+    );
+  }
+
+  /**
+   * Returns the emojis with an alias close to the given one, to suggest the
+   * right alias when it is misspelled.<br>
+   * Example: with a maximum distance of 1, <code>simle</code> gives the emoji
+   * for <code>smile</code>.
+   *
+   * @param alias       the alias, with or without the surrounding ':'
+   * @param maxDistance the maximum Levenshtein distance (number of inserted,
+   *                    deleted or replaced chars) from the given alias
+   *
+   * @return the emojis, the closest ones first, each one only once, none if
+   * the alias is empty
+   */
+  public static List<Emoji> getForAliasFuzzy(String alias, int maxDistance) {
+    // trimAlias needs a char on each side of ":"
+    if (alias == null || alias.isEmpty() || alias.equals(":")) {
+      return new ArrayList<Emoji>();
+    }
+    String trimmed = trimAlias(alias);
+    if (trimmed.isEmpty()) {
+      return new ArrayList<Emoji>();
+    }
+    return AliasBkTreeHolder.TREE.search(trimmed, maxDistance);
+  }
+
+  /**
+   * Searches the emojis by the words of their description, tags and
+   * aliases.<br>
+   * Example: <code>red heart</code> gives the emoji for <code>heart</code>
+   * first, followed by the other emojis matching "red" or "heart".<br>
+   * <br>
+   * The emojis matching more words, rarer words, or words of their aliases
+   * and tags rather than of their description, come first. A word matching a
+   * whole alias or tag counts more than a word inside a longer one:
+   * <code>heart</code> ranks "heart" before "heart_eyes".
+   *
+   * @param query the words to search, case insensitive
+   * @param limit the maximum number of emojis to return
+   *
+   * @return the matching emojis, the best ones first
+   */
+  public static List<Emoji> search(String query, int limit) {
+    return SearchIndexHolder.INDEX.search(query, limit);
+  }
+
+  private static String trimPrefix(String prefix) {
+    return prefix.startsWith(":") ? prefix.substring(1) : prefix;
+  }
+
+  /**
+   * Builds the prefix index on first use only.
+   */
+  private static class AliasIndexHolder {
+    private static final EmojiAliasIndex INDEX =
+      new EmojiAliasIndex(EMOJIS_BY_ALIAS);
+  }
+
+  /**
+   * Builds the tag index on first use only, since the tags of a database
+   * snapshot are in its metadata shard.<br>
+   * <br>
+   * The tags are sorted in an array, searched by dichotomy, next to the
+   * unmodifiable sets of their emojis: two arrays instead of a hash table
+   * entry per tag, and nothing a caller can modify.
+   */
+  private static class TagIndexHolder {
+    private static final String[] TAGS;
+    private static final EmojiSet[] EMOJIS_BY_TAG;
+    private static final List<String> ALL_TAGS;
+
+    static {
+      Map<String, int[]> ordinalsByTag = DATABASE.getOrdinalsByTag();
+      TAGS = ordinalsByTag.keySet().toArray(new String[ordinalsByTag.size()]);
+      Arrays.sort(TAGS);
+      EMOJIS_BY_TAG = new EmojiSet[TAGS.length];
+      for (int i = 0; i < TAGS.length; i++) {
+        EMOJIS_BY_TAG[i] = EmojiSet.unmodifiableOf(ordinalsByTag.get(TAGS[i]));
+      }
+      ALL_TAGS = ImmutableArrayList.wrap(TAGS);
+    }
+
+    private static EmojiSet get(String tag) {
+      if (tag == null) {
+        return null;
+      }
+      int index = Arrays.binarySearch(TAGS, tag);
+      return index < 0 ? null : EMOJIS_BY_TAG[index];
+    }
+  }
+
+  /**
+   * Builds the BK-tree on first use only.
+   */
+  private static class AliasBkTreeHolder {
+    private static final EmojiAliasBkTree TREE =
+      new EmojiAliasBkTree(EMOJIS_BY_ALIAS);
+  }
+
+  /**
+   * Builds the search index on first use only.
+   */
+  private static class SearchIndexHolder {
+    private static final EmojiSearchIndex INDEX =
+      new EmojiSearchIndex(EMOJIS_BY_ORDINAL);
+  }
+
   private static String trimAlias(String alias) {
     int len = alias.length();
     return alias.substring(
@@ -112,10 +264,34 @@ public class EmojiManager {
     return EMOJI_TRIE.getEmoji(unicode);
   }
 
+  /**
+   * Returns the ordinal of the loaded emoji equal to the given one. The
+   * emojis created outside of the EmojiManager are looked up by unicode.
+   *
+   * @param emoji the emoji
+   *
+   * @return the ordinal, -1 if no loaded emoji has the same unicode
+   */
+  static int ordinalOf(Emoji emoji) {
+    if (emoji.ordinal() >= 0) {
+      return emoji.ordinal();
+    }
+    Emoji loaded = getByUnicode(emoji.getUnicode());
+    return loaded == null ? -1 : loaded.ordinal();
+  }
+
+  static Emoji getByOrdinal(int ordinal) {
+    return EMOJIS_BY_ORDINAL[ordinal];
+  }
+
+  static int getOrdinalCount() {
+    return EMOJIS_BY_ORDINAL.length;
+  }
+
   /**
    * Returns all the {@link com.vdurmont.emoji.Emoji}s
    *
-   * @return all the {@link com.vdurmont.emoji.Emoji}s
+   * @return all the {@link com.vdurmont.emoji.Emoji}s (unmodifiable)
    */
   public static Collection<Emoji> getAll() {
     return ALL_EMOJIS;
@@ -129,12 +305,21 @@ public class EmojiManager {
    * @return true if the string is an emoji's unicode, false else
    */
   public static boolean isEmoji(String string) {
+    return isEmoji((CharSequence) string);
+  }
+
+  /**
+   * Tests if a given sequence of chars is an emoji, without copying it.
+   *
+   * @param string the sequence to test
+   *
+   * @return true if the sequence is an emoji's unicode, false else
+   */
+  public static boolean isEmoji(CharSequence string) {
     if (string == null) return false;
 
-    EmojiParser.UnicodeCandidate unicodeCandidate = EmojiParser.getNextUnicodeCandidate(string.toCharArray(), 0);
-    return unicodeCandidate != null &&
-            unicodeCandidate.getEmojiStartIndex() == 0 &&
-            unicodeCandidate.getFitzpatrickEndIndex() == string.length();
+    EmojiMatcher matcher = new EmojiMatcher(string);
+    return matcher.matchAt(0) && matcher.end() == string.length();
   }
 
   /**
@@ -145,9 +330,20 @@ public class EmojiManager {
    * @return true if the string contains an emoji's unicode, false otherwise
    */
   public static boolean containsEmoji(String string) {
+    return containsEmoji((CharSequence) string);
+  }
+
+  /**
+   * Tests if a given sequence of chars contains an emoji, without copying it.
+   *
+   * @param string the sequence to test
+   *
+   * @return true if the sequence contains an emoji's unicode, false otherwise
+   */
+  public static boolean containsEmoji(CharSequence string) {
     if (string == null) return false;
 
-    return EmojiParser.getNextUnicodeCandidate(string.toCharArray(), 0) != null;
+    return new EmojiMatcher(string).find();
   }
 
   /**
@@ -158,7 +354,26 @@ public class EmojiManager {
    * @return true if the string only contains emojis, false else
    */
   public static boolean isOnlyEmojis(String string) {
-    return string != null && EmojiParser.removeAllEmojis(string).isEmpty();
+    return isOnlyEmojis((CharSequence) string);
+  }
+
+  /**
+   * Tests if a given sequence of chars only contains emojis, without copying
+   * it.
+   *
+   * @param string the sequence to test
+   *
+   * @return true if the sequence only contains emojis, false else
+   */
+  public static boolean isOnlyEmojis(CharSequence string) {
+    if (string == null) return false;
+
+    EmojiMatcher matcher = new EmojiMatcher(string);
+    int end = 0;
+    while (end < string.length() && matcher.matchAt(end)) {
+      end = matcher.end();
+    }
+    return end == string.length();
   }
 
   /**
@@ -185,9 +400,9 @@ public class EmojiManager {
   /**
    * Returns all the tags in the database
    *
-   * @return the tags
+   * @return the tags (unmodifiable), in alphabetical order
    */
   public static Collection<String> getAllTags() {
-    return EMOJIS_BY_TAG.keySet();
+    return TagIndexHolder.ALL_TAGS;
   }
 }
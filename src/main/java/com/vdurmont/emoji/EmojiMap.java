@@ -0,0 +1,217 @@
+package com.vdurmont.emoji;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A Map from emojis to values backed by an array indexed by the ordinal of
+ * each emoji in the {@link EmojiManager}: the lookups are an array access,
+ * without hashing the unicode of the emoji.<br>
+ * <br>
+ * Only the emojis known by the EmojiManager can be used as keys. The other
+ * emojis are looked up by unicode, like {@link Emoji#equals(Object)} does.
+ * Null values are allowed.<br>
+ * <br>
+ * An EmojiMap is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class EmojiMap<V> extends AbstractMap<Emoji, V> {
+  // Stored instead of null values, so that a null slot means "no mapping"
+  private static final Object NULL = new Object();
+
+  private final Object[] values;
+  private int size;
+
+  /**
+   * Creates an empty map.
+   */
+  public EmojiMap() {
+    this.values = new Object[EmojiManager.getOrdinalCount()];
+  }
+
+  /**
+   * Creates a map containing the mappings of the given map.
+   *
+   * @param map the mappings to copy
+   *
+   * @throws IllegalArgumentException if a key is unknown to the EmojiManager
+   */
+  public EmojiMap(Map<? extends Emoji, ? extends V> map) {
+    this();
+    putAll(map);
+  }
+
+  @Override
+  public V get(Object key) {
+    int ordinal = ordinalOf(key);
+    return ordinal < 0 ? null : unmask(values[ordinal]);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int ordinal = ordinalOf(key);
+    return ordinal >= 0 && values[ordinal] != null;
+  }
+
+  @Override
+  public V put(Emoji key, V value) {
+    int ordinal = EmojiManager.ordinalOf(key);
+    if (ordinal < 0) {
+      throw new IllegalArgumentException("Unknown emoji: " + key.getUnicode());
+    }
+    Object previous = values[ordinal];
+    values[ordinal] = value == null ? NULL : value;
+    if (previous == null) {
+      size++;
+    }
+    return unmask(previous);
+  }
+
+  @Override
+  public V remove(Object key) {
+    int ordinal = ordinalOf(key);
+    if (ordinal < 0 || values[ordinal] == null) {
+      return null;
+    }
+    return removeOrdinal(ordinal);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<Emoji, V>> entrySet() {
+    return new AbstractSet<Entry<Emoji, V>>() {
+      @Override
+      public Iterator<Entry<Emoji, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        EmojiMap.this.clear();
+      }
+    };
+  }
+
+  private V removeOrdinal(int ordinal) {
+    V previous = unmask(values[ordinal]);
+    values[ordinal] = null;
+    size--;
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V unmask(Object value) {
+    return value == NULL ? null : (V) value;
+  }
+
+  private static int ordinalOf(Object key) {
+    return key instanceof Emoji ? EmojiManager.ordinalOf((Emoji) key) : -1;
+  }
+
+  private class EntryIterator implements Iterator<Entry<Emoji, V>> {
+    private int next = nextOrdinal(0);
+    private int last = -1;
+
+    public boolean hasNext() {
+      return next < values.length;
+    }
+
+    public Entry<Emoji, V> next() {
+      if (next == values.length) {
+        throw new NoSuchElementException();
+      }
+      last = next;
+      next = nextOrdinal(next + 1);
+      return new EmojiEntry(last);
+    }
+
+    public void remove() {
+      if (last < 0 || values[last] == null) {
+        throw new IllegalStateException();
+      }
+      removeOrdinal(last);
+      last = -1;
+    }
+
+    private int nextOrdinal(int from) {
+      int i = from;
+      while (i < values.length && values[i] == null) {
+        i++;
+      }
+      return i;
+    }
+  }
+
+  /**
+   * Entry reading and writing through the array of the map.
+   */
+  private class EmojiEntry implements Entry<Emoji, V> {
+    private final int ordinal;
+
+    private EmojiEntry(int ordinal) {
+      this.ordinal = ordinal;
+    }
+
+    public Emoji getKey() {
+      return EmojiManager.getByOrdinal(ordinal);
+    }
+
+    public V getValue() {
+      return unmask(values[ordinal]);
+    }
+
+    public V setValue(V value) {
+      // The entry was removed from the map: writing it would bring the
+      // mapping back without counting it in the size
+      if (values[ordinal] == null) {
+        throw new IllegalStateException("The entry was removed");
+      }
+      V previous = getValue();
+      values[ordinal] = value == null ? NULL : value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> other = (Entry<?, ?>) o;
+      V value = getValue();
+      return getKey().equals(other.getKey()) &&
+        (value == null ? other.getValue() == null : value.equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      V value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package com.vdurmont.emoji;
+
+/**
+ * Finds the emojis of a sequence of chars one after the other, in the style
+ * of {@link java.util.regex.Matcher}.<br>
+ * <br>
+ * A matcher can be reused for several inputs with {@link #reset(CharSequence)}
+ * and does not allocate anything while iterating over the emojis:
+ * <pre>
+ * EmojiMatcher matcher = new EmojiMatcher();
+ * matcher.reset(message);
+ * while (matcher.find()) {
+ *   Emoji emoji = matcher.emoji();
+ *   ...
+ * }
+ * </pre>
+ * Like the emojis found by the {@link EmojiParser}, a match is the longest
+ * emoji starting at a given position, followed by its fitzpatrick modifier if
+ * there is one.<br>
+ * <br>
+ * A matcher created by {@link EmojiParser#normalize(CharSequence,
+ * EmojiParser.Representation)} also matches the aliases and the html
+ * representations of the emojis.<br>
+ * <br>
+ * A matcher holds mutable state and must not be shared between threads.
+ */
+public class EmojiMatcher {
+  private static final Fitzpatrick[] FITZPATRICKS = Fitzpatrick.values();
+  private static final int FITZPATRICK_LENGTH = 2;
+
+  private final EmojiTrie trie = EmojiManager.EMOJI_TRIE;
+  private final EmojiTrie.Cursor cursor = trie.cursor();
+  private final EmojiTrie.Cursor aliasCursor;
+  private CharSequence input;
+  private int from;
+  private Emoji emoji;
+  private Fitzpatrick fitzpatrick;
+  private int start;
+  private int emojiEnd;
+  private int end;
+
+  /**
+   * Creates a matcher with an empty input.
+   * Use {@link #reset(CharSequence)} to set the input.
+   */
+  public EmojiMatcher() {
+    this("");
+  }
+
+  /**
+   * Creates a matcher for the given input.
+   *
+   * @param input the sequence to search the emojis in
+   */
+  public EmojiMatcher(CharSequence input) {
+    this(input, false);
+  }
+
+  /**
+   * Creates a matcher for the given input that can also match the aliases
+   * (":smile:", ":boy|type_6:") and the html representations ("&amp;#128516;",
+   * "&amp;#x1f604;") of the emojis.
+   *
+   * @param input                the sequence to search the emojis in
+   * @param decodeAliasesAndHtml true to also match the aliases and the html
+   *                             representations
+   */
+  EmojiMatcher(CharSequence input, boolean decodeAliasesAndHtml) {
+    this.aliasCursor = decodeAliasesAndHtml ?
+      EmojiManager.ALIAS_TRIE.cursor() :
+      null;
+    reset(input);
+  }
+
+  /**
+   * Sets a new input and moves the matcher back to its beginning.
+   *
+   * @param input the sequence to search the emojis in
+   *
+   * @return this matcher
+   */
+  public EmojiMatcher reset(CharSequence input) {
+    this.input = input;
+    return reset();
+  }
+
+  /**
+   * Moves the matcher back to the beginning of its input.
+   *
+   * @return this matcher
+   */
+  public EmojiMatcher reset() {
+    this.from = 0;
+    this.emoji = null;
+    return this;
+  }
+
+  /**
+   * Finds the next emoji of the input, starting right after the previous
+   * match, or at the beginning of the input if there was no previous match.
+   *
+   * @return true if an emoji was found, false otherwise
+   */
+  public boolean find() {
+    for (int i = from; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (trie.isFirstChar(c) && matchAt(i)) {
+        return true;
+      }
+      if (aliasCursor != null && (c == ':' || c == '&') && decodeAt(i)) {
+        return true;
+      }
+    }
+    emoji = null;
+    from = input.length();
+    return false;
+  }
+
+  /**
+   * Resets the matcher and finds the next emoji starting at the given index.
+   *
+   * @param start the index where the search starts
+   *
+   * @return true if an emoji was found, false otherwise
+   */
+  public boolean find(int start) {
+    if (start < 0 || start > input.length()) {
+      throw new IndexOutOfBoundsException("Illegal start index " + start);
+    }
+    reset();
+    from = start;
+    return find();
+  }
+
+  /**
+   * Tries to match an emoji starting exactly at the given index.
+   *
+   * @param index the index where the emoji must start
+   *
+   * @return true if an emoji starts at this index, false otherwise
+   */
+  boolean matchAt(int index) {
+    Emoji longest = null;
+    cursor.reset();
+    for (int j = index; j < input.length() && cursor.next(input.charAt(j)); j++) {
+      if (cursor.getEmoji() != null) {
+        longest = cursor.getEmoji();
+      }
+    }
+    if (longest == null) {
+      emoji = null;
+      return false;
+    }
+
+    emoji = longest;
+    start = index;
+    emojiEnd = index + longest.getUnicode().length();
+    fitzpatrick = getFitzpatrickAt(emojiEnd);
+    end = emojiEnd + (fitzpatrick != null ? FITZPATRICK_LENGTH : 0);
+    from = end;
+    return true;
+  }
+
+  /**
+   * Tries to match an alias or an html representation starting exactly at
+   * the given index. Like after a unicode emoji, a fitzpatrick modifier
+   * following the match is part of it.
+   */
+  private boolean decodeAt(int index) {
+    EmojiParser.AliasCandidate alias = input.charAt(index) == ':' ?
+      EmojiParser.getAliasAt(input, index, aliasCursor) :
+      EmojiParser.getHtmlEncodedEmojiAt(input, index, cursor);
+    if (alias == null) {
+      emoji = null;
+      return false;
+    }
+
+    emoji = alias.emoji;
+    start = index;
+    emojiEnd = alias.endIndex + 1;
+    fitzpatrick = alias.fitzpatrick;
+    end = emojiEnd;
+    if (fitzpatrick == null) {
+      fitzpatrick = getFitzpatrickAt(emojiEnd);
+      end += fitzpatrick != null ? FITZPATRICK_LENGTH : 0;
+    }
+    from = end;
+    return true;
+  }
+
+  private Fitzpatrick getFitzpatrickAt(int index) {
+    // The fitzpatrick modifiers are U+1F3FB to U+1F3FF
+    if (index + FITZPATRICK_LENGTH > input.length() ||
+      input.charAt(index) != '\uD83C') {
+      return null;
+    }
+    int type = input.charAt(index + 1) - '\uDFFB';
+    return type >= 0 && type < FITZPATRICKS.length ? FITZPATRICKS[type] : null;
+  }
+
+  /**
+   * Tests if the matcher is positioned on a match, that is if the last call
+   * to {@link #find()} succeeded.
+   *
+   * @return true if there is a current match, false otherwise
+   */
+  public boolean hasMatch() {
+    return emoji != null;
+  }
+
+  /**
+   * Returns the emoji of the current match.
+   *
+   * @return the emoji
+   * @throws IllegalStateException if there is no current match
+   */
+  public Emoji emoji() {
+    checkMatch();
+    return emoji;
+  }
+
+  /**
+   * Returns the fitzpatrick modifier following the emoji of the current
+   * match.
+   *
+   * @return the fitzpatrick modifier, null if there is none
+   * @throws IllegalStateException if there is no current match
+   */
+  public Fitzpatrick fitzpatrick() {
+    checkMatch();
+    return fitzpatrick;
+  }
+
+  /**
+   * Returns the index of the first char of the current match.
+   *
+   * @return the start index of the emoji
+   * @throws IllegalStateException if there is no current match
+   */
+  public int start() {
+    checkMatch();
+    return start;
+  }
+
+  /**
+   * Returns the index following the emoji of the current match, without its
+   * fitzpatrick modifier. For an alias, the fitzpatrick type written in the
+   * alias (":boy|type_6:") is part of the emoji.
+   *
+   * @return the end index of the emoji
+   * @throws IllegalStateException if there is no current match
+   */
+  public int emojiEnd() {
+    checkMatch();
+    return emojiEnd;
+  }
+
+  /**
+   * Returns the index following the current match, including the
+   * fitzpatrick modifier if there is one.
+   *
+   * @return the end index of the match
+   * @throws IllegalStateException if there is no current match
+   */
+  public int end() {
+    checkMatch();
+    return end;
+  }
+
+  private void checkMatch() {
+    if (emoji == null) {
+      throw new IllegalStateException("No match available");
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.vdurmont.emoji;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -10,6 +12,11 @@ import java.util.List;
  * @author Vincent DURMONT [vdurmont@gmail.com]
  */
 public class EmojiParser {
+  private static final Fitzpatrick[] FITZPATRICKS = Fitzpatrick.values();
+  // The longest html representation of a code point, "&#x10ffff;" or
+  // "&#1114111;". The longer ones, padded with zeros, are not decoded so
+  // that the EmojiStreamParser knows how far to look ahead.
+  static final int MAX_HTML_CODE_POINT_LENGTH = 10;
 
   /**
    * See {@link #parseToAliases(String, FitzpatrickAction)} with the action
@@ -23,6 +30,17 @@ public class EmojiParser {
     return parseToAliases(input, FitzpatrickAction.PARSE);
   }
 
+  /**
+   * See {@link #parseToAliases(String)}
+   *
+   * @param input the sequence to parse, scanned in place
+   *
+   * @return the string with the emojis replaced by their alias.
+   */
+  public static String parseToAliases(CharSequence input) {
+    return parseToAliases(input, FitzpatrickAction.PARSE);
+  }
+
   /**
    * Replaces the emoji's unicode occurrences by one of their alias
    * (between 2 ':').<br>
@@ -49,34 +67,58 @@ public class EmojiParser {
    */
   public static String parseToAliases(
     String input,
-    final FitzpatrickAction fitzpatrickAction
+    FitzpatrickAction fitzpatrickAction
   ) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        switch (fitzpatrickAction) {
-          default:
-          case PARSE:
-            if (unicodeCandidate.hasFitzpatrick()) {
-              return ":" +
-                unicodeCandidate.getEmoji().getAliases().get(0) +
-                "|" +
-                unicodeCandidate.getFitzpatrickType() +
-                ":";
-            }
-          case REMOVE:
-            return ":" +
-              unicodeCandidate.getEmoji().getAliases().get(0) +
-              ":";
-          case IGNORE:
-            return ":" +
-              unicodeCandidate.getEmoji().getAliases().get(0) +
-              ":" +
-              unicodeCandidate.getFitzpatrickUnicode();
-        }
-      }
-    };
+    return parseToAliases((CharSequence) input, fitzpatrickAction);
+  }
 
-    return parseFromUnicode(input, emojiTransformer);
+  /**
+   * See {@link #parseToAliases(String, FitzpatrickAction)}
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   *
+   * @return the string with the emojis replaced by their alias.
+   */
+  public static String parseToAliases(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction
+  ) {
+    return parseFromUnicode(input, aliasAppender(fitzpatrickAction));
+  }
+
+  /**
+   * Same as {@link #parseToAliases(String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input the sequence to parse, scanned in place
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToAliases(
+    CharSequence input,
+    Appendable out
+  ) throws IOException {
+    parseToAliases(input, FitzpatrickAction.PARSE, out);
+  }
+
+  /**
+   * Same as {@link #parseToAliases(String, FitzpatrickAction)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToAliases(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(input, aliasAppender(fitzpatrickAction), out);
   }
 
   /**
@@ -86,14 +128,37 @@ public class EmojiParser {
    * @param replacementString replacement the string that will replace all the emojis
    * @return the string with replaced character
    */
-  public static String replaceAllEmojis(String str, final String replacementString) {
-    EmojiParser.EmojiTransformer emojiTransformer = new EmojiParser.EmojiTransformer() {
-      public String transform(EmojiParser.UnicodeCandidate unicodeCandidate) {
-        return replacementString;
-      }
-    };
+  public static String replaceAllEmojis(String str, String replacementString) {
+    return replaceAllEmojis((CharSequence) str, replacementString);
+  }
 
-    return parseFromUnicode(str, emojiTransformer);
+  /**
+   * See {@link #replaceAllEmojis(String, String)}
+   *
+   * @param str the sequence to process, scanned in place
+   * @param replacementString replacement the string that will replace all the emojis
+   * @return the string with replaced character
+   */
+  public static String replaceAllEmojis(CharSequence str, String replacementString) {
+    return parseFromUnicode(str, replacementAppender(replacementString));
+  }
+
+  /**
+   * Same as {@link #replaceAllEmojis(String, String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param str the sequence to process, scanned in place
+   * @param replacementString replacement the string that will replace all the emojis
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void replaceAllEmojis(
+    CharSequence str,
+    String replacementString,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(str, replacementAppender(replacementString), out);
   }
 
 
@@ -103,7 +168,9 @@ public class EmojiParser {
    * Examples:<br>
    * <code>:smile:</code> will be replaced by <code>😄</code><br>
    * <code>&amp;#128516;</code> will be replaced by <code>😄</code><br>
-   * <code>:boy|type_6:</code> will be replaced by <code>👦🏿</code>
+   * <code>:boy|type_6:</code> will be replaced by <code>👦🏿</code><br>
+   * The html representations longer than 10 chars, padded with zeros like
+   * <code>&amp;#00000128516;</code>, are left as they are.
    *
    * @param input the string to parse
    *
@@ -111,87 +178,293 @@ public class EmojiParser {
    * their unicode.
    */
   public static String parseToUnicode(String input) {
+    return parseToUnicode((CharSequence) input);
+  }
+
+  /**
+   * See {@link #parseToUnicode(String)}
+   *
+   * @param input the sequence to parse, scanned in place
+   *
+   * @return the string with the aliases and html representations replaced by
+   * their unicode.
+   */
+  public static String parseToUnicode(CharSequence input) {
+    AliasCandidate first = getNextAliasCandidate(input, 0, input.length());
+    if (first == null) {
+      // Nothing to replace, no need to copy the input
+      return input.toString();
+    }
+
     StringBuilder sb = new StringBuilder(input.length());
+    try {
+      parseToUnicode(input, input.length(), first, sb);
+    } catch (IOException e) {
+      // A StringBuilder never throws
+      throw new RuntimeException(e);
+    }
+    return sb.toString();
+  }
 
-    for (int last = 0; last < input.length(); last++) {
-      AliasCandidate alias = getAliasAt(input, last);
-      if (alias == null) {
-          alias = getHtmlEncodedEmojiAt(input, last);
-      }
+  /**
+   * Same as {@link #parseToUnicode(String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input the sequence to parse, scanned in place
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToUnicode(
+    CharSequence input,
+    Appendable out
+  ) throws IOException {
+    parseToUnicode(input, input.length(), out);
+  }
 
-      if (alias != null) {
-        sb.append(alias.emoji.getUnicode());
-        last = alias.endIndex;
+  /**
+   * Writes the input to out, replacing the aliases and html representations
+   * that start before limit by their unicode.
+   *
+   * @return the index of the first char that was not written. The chars
+   * after limit are only written when they are part of a replaced alias.
+   */
+  static int parseToUnicode(
+    CharSequence input,
+    int limit,
+    Appendable out
+  ) throws IOException {
+    return parseToUnicode(
+      input,
+      limit,
+      getNextAliasCandidate(input, 0, limit),
+      out
+    );
+  }
+
+  private static int parseToUnicode(
+    CharSequence input,
+    int limit,
+    AliasCandidate alias,
+    Appendable out
+  ) throws IOException {
+    int prev = 0;
+    while (alias != null) {
+      out.append(input, prev, alias.startIndex);
+      out.append(alias.emoji.getOutputForm(
+        Emoji.FORM_UNICODE,
+        alias.fitzpatrick
+      ));
+      prev = alias.endIndex + 1;
+      alias = getNextAliasCandidate(input, prev, limit);
+    }
+
+    int end = Math.max(prev, limit);
+    out.append(input, prev, end);
+    return end;
+  }
 
-        if (alias.fitzpatrick != null) {
-          sb.append(alias.fitzpatrick.unicode);
+  /**
+   * Finds the first alias or html representation starting in [from, limit),
+   * null if there is none
+   */
+  private static AliasCandidate getNextAliasCandidate(
+    CharSequence input,
+    int from,
+    int limit
+  ) {
+    EmojiTrie.Cursor aliasCursor = null;
+    EmojiTrie.Cursor emojiCursor = null;
+    for (int i = from; i < limit; i++) {
+      char c = input.charAt(i);
+      AliasCandidate alias = null;
+      if (c == ':') {
+        if (aliasCursor == null) {
+          aliasCursor = EmojiManager.ALIAS_TRIE.cursor();
         }
-      } else {
-        sb.append(input.charAt(last));
+        alias = getAliasAt(input, i, aliasCursor);
+      } else if (c == '&') {
+        if (emojiCursor == null) {
+          emojiCursor = EmojiManager.EMOJI_TRIE.cursor();
+        }
+        alias = getHtmlEncodedEmojiAt(input, i, emojiCursor);
+      }
+      if (alias != null) {
+        return alias;
       }
     }
-
-    return sb.toString();
+    return null;
   }
 
   /** Finds the alias in the given string starting at the given point, null otherwise */
   protected static AliasCandidate getAliasAt(String input, int start) {
+    return getAliasAt((CharSequence) input, start);
+  }
+
+  /** See {@link #getAliasAt(String, int)} */
+  protected static AliasCandidate getAliasAt(CharSequence input, int start) {
+    return getAliasAt(input, start, EmojiManager.ALIAS_TRIE.cursor());
+  }
+
+  /**
+   * Walks the alias trie from the char following the opening colon, so that
+   * the alias, its fitzpatrick type and the closing colon are all resolved in
+   * one forward pass.
+   */
+  static AliasCandidate getAliasAt(
+    CharSequence input,
+    int start,
+    EmojiTrie.Cursor cursor
+  ) {
     if (input.length() < start + 2 || input.charAt(start) != ':') return null; // Aliases start with :
-    int aliasEnd = input.indexOf(':', start + 2);  // Alias must be at least 1 char in length
+
+    cursor.reset();
+    for (int i = start + 1; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (i > start + 1 && c == ':') {
+        Emoji emoji = cursor.getEmoji();
+        if (emoji == null) return null; // Not a valid alias
+        return new AliasCandidate(emoji, null, start, i);
+      }
+      if (i > start + 1 && c == '|') {
+        Emoji emoji = cursor.getEmoji();
+        if (emoji == null) return null; // Not a valid alias
+        if (!emoji.supportsFitzpatrick()) return null; // Fitzpatrick was specified, but the emoji does not support it
+        return getFitzpatrickTypeAt(input, i + 1, emoji, start);
+      }
+      if (!cursor.next(c)) return null; // Not the prefix of an alias
+    }
+    return null; // No alias end found
+  }
+
+  /**
+   * Reads the fitzpatrick type of an alias up to the closing colon. Like the
+   * aliases, an unknown type is accepted and gives no fitzpatrick modifier.
+   */
+  private static AliasCandidate getFitzpatrickTypeAt(
+    CharSequence input,
+    int typeStart,
+    Emoji emoji,
+    int start
+  ) {
+    int aliasEnd = indexOf(input, ':', typeStart);
     if (aliasEnd == -1) return null; // No alias end found
 
-    int fitzpatrickStart = input.indexOf('|', start + 2);
-    if (fitzpatrickStart != -1 && fitzpatrickStart < aliasEnd) {
-      Emoji emoji = EmojiManager.getForAlias(input.substring(start, fitzpatrickStart));
-      if (emoji == null) return null; // Not a valid alias
-      if (!emoji.supportsFitzpatrick()) return null; // Fitzpatrick was specified, but the emoji does not support it
-      Fitzpatrick fitzpatrick = Fitzpatrick.fitzpatrickFromType(input.substring(fitzpatrickStart + 1, aliasEnd));
-      return new AliasCandidate(emoji, fitzpatrick, start, aliasEnd);
+    Fitzpatrick fitzpatrick = null;
+    for (Fitzpatrick candidate : FITZPATRICKS) {
+      if (regionMatchesIgnoreCase(input, typeStart, aliasEnd, candidate.type)) {
+        fitzpatrick = candidate;
+        break;
+      }
     }
+    return new AliasCandidate(emoji, fitzpatrick, start, aliasEnd);
+  }
 
-    Emoji emoji = EmojiManager.getForAlias(input.substring(start, aliasEnd));
-    if (emoji == null) return null; // Not a valid alias
-    return new AliasCandidate(emoji, null, start, aliasEnd);
+  private static boolean regionMatchesIgnoreCase(
+    CharSequence input,
+    int start,
+    int end,
+    String str
+  ) {
+    if (end - start != str.length()) {
+      return false;
+    }
+    for (int i = 0; i < str.length(); i++) {
+      char c = input.charAt(start + i);
+      if (Character.toLowerCase(c) != str.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /** Finds the HTML encoded emoji in the given string starting at the given point, null otherwise */
   protected static AliasCandidate getHtmlEncodedEmojiAt(String input, int start) {
-    if (input.length() < start + 4 || input.charAt(start) != '&' || input.charAt(start + 1) != '#') return null;
+    return getHtmlEncodedEmojiAt((CharSequence) input, start);
+  }
+
+  /** See {@link #getHtmlEncodedEmojiAt(String, int)} */
+  protected static AliasCandidate getHtmlEncodedEmojiAt(CharSequence input, int start) {
+    return getHtmlEncodedEmojiAt(
+      input,
+      start,
+      EmojiManager.EMOJI_TRIE.cursor()
+    );
+  }
 
+  /**
+   * Decodes the numeric html entities one after the other and feeds their
+   * code points to the cursor, until the chars can no longer be the prefix
+   * of an emoji. A malformed entity, or one longer than
+   * {@link #MAX_HTML_CODE_POINT_LENGTH} chars, simply ends the decoding.
+   */
+  static AliasCandidate getHtmlEncodedEmojiAt(
+    CharSequence input,
+    int start,
+    EmojiTrie.Cursor cursor
+  ) {
     Emoji longestEmoji = null;
     int longestCodePointEnd = -1;
-    char[] chars = new char[EmojiManager.EMOJI_TRIE.maxDepth];
-    int charsIndex = 0;
+    cursor.reset();
     int codePointStart = start;
-    do {
-      int codePointEnd = input.indexOf(';', codePointStart + 3);  // Code point must be at least 1 char in length
-      if (codePointEnd == -1) break;
-
-      try {
-        int radix = input.charAt(codePointStart + 2) == 'x' ? 16 : 10;
-        int codePoint = Integer.parseInt(input.substring(codePointStart + 2 + radix / 16, codePointEnd), radix);
-        charsIndex += Character.toChars(codePoint, chars, charsIndex);
-      } catch (NumberFormatException e) {
-        break;
-      } catch (IllegalArgumentException e) {
-        break;
+    while (codePointStart + 1 < input.length() &&
+      input.charAt(codePointStart) == '&' &&
+      input.charAt(codePointStart + 1) == '#') {
+      int i = codePointStart + 2;
+      int radix = 10;
+      if (i < input.length() && input.charAt(i) == 'x') {
+        radix = 16;
+        i++;
+      }
+
+      int digitsStart = i;
+      int codePoint = 0;
+      // The ';' must be within the longest html representation
+      int digitsEnd = Math.min(
+        input.length(),
+        codePointStart + MAX_HTML_CODE_POINT_LENGTH - 1
+      );
+      for (; i < digitsEnd && codePoint <= Character.MAX_CODE_POINT; i++) {
+        int digit = Character.digit(input.charAt(i), radix);
+        if (digit == -1) break;
+        codePoint = codePoint * radix + digit;
       }
-      Emoji foundEmoji = EmojiManager.EMOJI_TRIE.getEmoji(chars, 0, charsIndex);
-      if (foundEmoji != null) {
-        longestEmoji = foundEmoji;
-        longestCodePointEnd = codePointEnd;
+      if (i == digitsStart || i == input.length() || input.charAt(i) != ';' ||
+        codePoint > Character.MAX_CODE_POINT) {
+        break; // Not a valid code point
       }
-      codePointStart = codePointEnd + 1;
-    } while (input.length() > codePointStart + 4 &&
-            input.charAt(codePointStart) == '&' &&
-            input.charAt(codePointStart + 1) == '#' &&
-            charsIndex < chars.length &&
-            !EmojiManager.EMOJI_TRIE.isEmoji(chars, 0, charsIndex).impossibleMatch());
+
+      if (!next(cursor, codePoint)) break; // No emoji starts with these chars
+      if (cursor.getEmoji() != null) {
+        longestEmoji = cursor.getEmoji();
+        longestCodePointEnd = i;
+      }
+      codePointStart = i + 1;
+    }
 
     if (longestEmoji == null) return null;
     return new AliasCandidate(longestEmoji, null, start, longestCodePointEnd);
   }
 
+  private static boolean next(EmojiTrie.Cursor cursor, int codePoint) {
+    if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      return cursor.next((char) codePoint);
+    }
+    int offset = codePoint - Character.MIN_SUPPLEMENTARY_CODE_POINT;
+    return cursor.next((char) (Character.MIN_HIGH_SURROGATE + (offset >>> 10)))
+      && cursor.next((char) (Character.MIN_LOW_SURROGATE + (offset & 0x3FF)));
+  }
+
+  private static int indexOf(CharSequence input, char c, int fromIndex) {
+    for (int i = fromIndex; i < input.length(); i++) {
+      if (input.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
   /**
    * See {@link #parseToHtmlDecimal(String, FitzpatrickAction)} with the action
    * "PARSE"
@@ -205,6 +478,18 @@ public class EmojiParser {
     return parseToHtmlDecimal(input, FitzpatrickAction.PARSE);
   }
 
+  /**
+   * See {@link #parseToHtmlDecimal(String)}
+   *
+   * @param input the sequence to parse, scanned in place
+   *
+   * @return the string with the emojis replaced by their html decimal
+   * representation.
+   */
+  public static String parseToHtmlDecimal(CharSequence input) {
+    return parseToHtmlDecimal(input, FitzpatrickAction.PARSE);
+  }
+
   /**
    * Replaces the emoji's unicode occurrences by their html representation.<br>
    * Example: <code>😄</code> will be replaced by <code>&amp;#128516;</code><br>
@@ -227,23 +512,59 @@ public class EmojiParser {
    */
   public static String parseToHtmlDecimal(
     String input,
-    final FitzpatrickAction fitzpatrickAction
+    FitzpatrickAction fitzpatrickAction
   ) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        switch (fitzpatrickAction) {
-          default:
-          case PARSE:
-          case REMOVE:
-            return unicodeCandidate.getEmoji().getHtmlDecimal();
-          case IGNORE:
-            return unicodeCandidate.getEmoji().getHtmlDecimal() +
-              unicodeCandidate.getFitzpatrickUnicode();
-        }
-      }
-    };
+    return parseToHtmlDecimal((CharSequence) input, fitzpatrickAction);
+  }
 
-    return parseFromUnicode(input, emojiTransformer);
+  /**
+   * See {@link #parseToHtmlDecimal(String, FitzpatrickAction)}
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   *
+   * @return the string with the emojis replaced by their html decimal
+   * representation.
+   */
+  public static String parseToHtmlDecimal(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction
+  ) {
+    return parseFromUnicode(input, htmlAppender(false, fitzpatrickAction));
+  }
+
+  /**
+   * Same as {@link #parseToHtmlDecimal(String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input the sequence to parse, scanned in place
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToHtmlDecimal(
+    CharSequence input,
+    Appendable out
+  ) throws IOException {
+    parseToHtmlDecimal(input, FitzpatrickAction.PARSE, out);
+  }
+
+  /**
+   * Same as {@link #parseToHtmlDecimal(String, FitzpatrickAction)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToHtmlDecimal(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(input, htmlAppender(false, fitzpatrickAction), out);
   }
 
   /**
@@ -259,6 +580,18 @@ public class EmojiParser {
     return parseToHtmlHexadecimal(input, FitzpatrickAction.PARSE);
   }
 
+  /**
+   * See {@link #parseToHtmlHexadecimal(String)}
+   *
+   * @param input the sequence to parse, scanned in place
+   *
+   * @return the string with the emojis replaced by their html hex
+   * representation.
+   */
+  public static String parseToHtmlHexadecimal(CharSequence input) {
+    return parseToHtmlHexadecimal(input, FitzpatrickAction.PARSE);
+  }
+
   /**
    * Replaces the emoji's unicode occurrences by their html hex
    * representation.<br>
@@ -282,23 +615,59 @@ public class EmojiParser {
    */
   public static String parseToHtmlHexadecimal(
     String input,
-    final FitzpatrickAction fitzpatrickAction
+    FitzpatrickAction fitzpatrickAction
   ) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        switch (fitzpatrickAction) {
-          default:
-          case PARSE:
-          case REMOVE:
-            return unicodeCandidate.getEmoji().getHtmlHexadecimal();
-          case IGNORE:
-            return unicodeCandidate.getEmoji().getHtmlHexadecimal() +
-              unicodeCandidate.getFitzpatrickUnicode();
-        }
-      }
-    };
+    return parseToHtmlHexadecimal((CharSequence) input, fitzpatrickAction);
+  }
 
-    return parseFromUnicode(input, emojiTransformer);
+  /**
+   * See {@link #parseToHtmlHexadecimal(String, FitzpatrickAction)}
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   *
+   * @return the string with the emojis replaced by their html hex
+   * representation.
+   */
+  public static String parseToHtmlHexadecimal(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction
+  ) {
+    return parseFromUnicode(input, htmlAppender(true, fitzpatrickAction));
+  }
+
+  /**
+   * Same as {@link #parseToHtmlHexadecimal(String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input the sequence to parse, scanned in place
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToHtmlHexadecimal(
+    CharSequence input,
+    Appendable out
+  ) throws IOException {
+    parseToHtmlHexadecimal(input, FitzpatrickAction.PARSE, out);
+  }
+
+  /**
+   * Same as {@link #parseToHtmlHexadecimal(String, FitzpatrickAction)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param input             the sequence to parse, scanned in place
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseToHtmlHexadecimal(
+    CharSequence input,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(input, htmlAppender(true, fitzpatrickAction), out);
   }
 
   /**
@@ -309,18 +678,41 @@ public class EmojiParser {
    * @return the string without any emoji
    */
   public static String removeAllEmojis(String str) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        return "";
-      }
-    };
+    return removeAllEmojis((CharSequence) str);
+  }
+
+  /**
+   * See {@link #removeAllEmojis(String)}
+   *
+   * @param str the sequence to process, scanned in place
+   *
+   * @return the string without any emoji
+   */
+  public static String removeAllEmojis(CharSequence str) {
+    return parseFromUnicode(str, replacementAppender(""));
+  }
 
-    return parseFromUnicode(str, emojiTransformer);
+  /**
+   * Same as {@link #removeAllEmojis(String)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param str the sequence to process, scanned in place
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void removeAllEmojis(
+    CharSequence str,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(str, replacementAppender(""), out);
   }
 
 
   /**
-   * Removes a set of emojis from a String
+   * Removes a set of emojis from a String.<br>
+   * The emojis are copied to an {@link EmojiSet} when the first emoji of the
+   * string is found, unless they already are in one.
    *
    * @param str            the string to process
    * @param emojisToRemove the emojis to remove from this string
@@ -329,23 +721,48 @@ public class EmojiParser {
    */
   public static String removeEmojis(
     String str,
-    final Collection<Emoji> emojisToRemove
+    Collection<Emoji> emojisToRemove
   ) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        if (!emojisToRemove.contains(unicodeCandidate.getEmoji())) {
-          return unicodeCandidate.getEmoji().getUnicode() +
-            unicodeCandidate.getFitzpatrickUnicode();
-        }
-        return "";
-      }
-    };
+    return removeEmojis((CharSequence) str, emojisToRemove);
+  }
 
-    return parseFromUnicode(str, emojiTransformer);
+  /**
+   * See {@link #removeEmojis(String, Collection)}
+   *
+   * @param str            the sequence to process, scanned in place
+   * @param emojisToRemove the emojis to remove from this string
+   *
+   * @return the string without the emojis that were removed
+   */
+  public static String removeEmojis(
+    CharSequence str,
+    Collection<Emoji> emojisToRemove
+  ) {
+    return parseFromUnicode(str, filterAppender(emojisToRemove, false));
   }
 
   /**
-   * Removes all the emojis in a String except a provided set
+   * Same as {@link #removeEmojis(String, Collection)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param str            the sequence to process, scanned in place
+   * @param emojisToRemove the emojis to remove from this string
+   * @param out            the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void removeEmojis(
+    CharSequence str,
+    Collection<Emoji> emojisToRemove,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(str, filterAppender(emojisToRemove, false), out);
+  }
+
+  /**
+   * Removes all the emojis in a String except a provided set.<br>
+   * The emojis are copied to an {@link EmojiSet} when the first emoji of the
+   * string is found, unless they already are in one.
    *
    * @param str          the string to process
    * @param emojisToKeep the emojis to keep in this string
@@ -354,19 +771,42 @@ public class EmojiParser {
    */
   public static String removeAllEmojisExcept(
     String str,
-    final Collection<Emoji> emojisToKeep
+    Collection<Emoji> emojisToKeep
   ) {
-    EmojiTransformer emojiTransformer = new EmojiTransformer() {
-      public String transform(UnicodeCandidate unicodeCandidate) {
-        if (emojisToKeep.contains(unicodeCandidate.getEmoji())) {
-          return unicodeCandidate.getEmoji().getUnicode() +
-            unicodeCandidate.getFitzpatrickUnicode();
-        }
-        return "";
-      }
-    };
+    return removeAllEmojisExcept((CharSequence) str, emojisToKeep);
+  }
 
-    return parseFromUnicode(str, emojiTransformer);
+  /**
+   * See {@link #removeAllEmojisExcept(String, Collection)}
+   *
+   * @param str          the sequence to process, scanned in place
+   * @param emojisToKeep the emojis to keep in this string
+   *
+   * @return the string without the emojis that were removed
+   */
+  public static String removeAllEmojisExcept(
+    CharSequence str,
+    Collection<Emoji> emojisToKeep
+  ) {
+    return parseFromUnicode(str, filterAppender(emojisToKeep, true));
+  }
+
+  /**
+   * Same as {@link #removeAllEmojisExcept(String, Collection)}, but writes the
+   * result to the given Appendable instead of returning a new String.
+   *
+   * @param str          the sequence to process, scanned in place
+   * @param emojisToKeep the emojis to keep in this string
+   * @param out          the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void removeAllEmojisExcept(
+    CharSequence str,
+    Collection<Emoji> emojisToKeep,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(str, filterAppender(emojisToKeep, true), out);
   }
 
 
@@ -383,20 +823,220 @@ public class EmojiParser {
     String input,
     EmojiTransformer transformer
   ) {
-    int prev = 0;
+    return parseFromUnicode((CharSequence) input, transformer);
+  }
+
+  /**
+   * See {@link #parseFromUnicode(String, EmojiTransformer)}
+   *
+   * @param input the sequence to process, scanned in place
+   * @param transformer emoji transformer to apply to each emoji
+   *
+   * @return input string with all emojis transformed
+   */
+  public static String parseFromUnicode(
+    CharSequence input,
+    final EmojiTransformer transformer
+  ) {
+    return parseFromUnicode(input, new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        out.append(transformer.transform(new UnicodeCandidate(match)));
+      }
+    });
+  }
+
+  /**
+   * Detects all unicode emojis in input string and replaces them with what
+   * appender.append() writes for each of them.
+   *
+   * @param input the sequence to process, scanned in place
+   * @param appender emoji appender to apply to each emoji
+   *
+   * @return input string with all emojis transformed
+   */
+  public static String parseFromUnicode(
+    CharSequence input,
+    EmojiAppender appender
+  ) {
+    EmojiMatcher matcher = new EmojiMatcher(input);
+    if (!matcher.find()) {
+      // Nothing to replace, no need to copy the input
+      return input.toString();
+    }
+
     StringBuilder sb = new StringBuilder(input.length());
-    List<UnicodeCandidate> replacements = getUnicodeCandidates(input);
-    for (UnicodeCandidate candidate : replacements) {
-      sb.append(input, prev, candidate.getEmojiStartIndex());
+    try {
+      parseFromUnicode(input, input.length(), matcher, appender, sb);
+    } catch (IOException e) {
+      // A StringBuilder never throws
+      throw new RuntimeException(e);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Detects all unicode emojis in input string and writes it to the given
+   * Appendable, letting the appender write a replacement for each emoji.
+   *
+   * @param input the sequence to process, scanned in place
+   * @param appender emoji appender to apply to each emoji
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void parseFromUnicode(
+    CharSequence input,
+    EmojiAppender appender,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(input, input.length(), appender, out);
+  }
+
+  /**
+   * Writes the input to out, letting the appender write a replacement for
+   * each emoji that starts before limit.
+   *
+   * @return the index of the first char that was not written. The chars
+   * after limit are only written when they are part of a replaced emoji.
+   */
+  static int parseFromUnicode(
+    CharSequence input,
+    int limit,
+    EmojiAppender appender,
+    Appendable out
+  ) throws IOException {
+    EmojiMatcher matcher = new EmojiMatcher(input);
+    matcher.find();
+    return parseFromUnicode(input, limit, matcher, appender, out);
+  }
 
-      sb.append(transformer.transform(candidate));
-      prev = candidate.getFitzpatrickEndIndex();
+  /**
+   * Same as above, with a matcher that already ran its first find()
+   */
+  private static int parseFromUnicode(
+    CharSequence input,
+    int limit,
+    EmojiMatcher matcher,
+    EmojiAppender appender,
+    Appendable out
+  ) throws IOException {
+    int prev = 0;
+    while (matcher.hasMatch() && matcher.start() < limit) {
+      out.append(input, prev, matcher.start());
+
+      appender.append(matcher, out);
+      prev = matcher.end();
+      matcher.find();
     }
 
-    return sb.append(input.substring(prev)).toString();
+    int end = Math.max(prev, limit);
+    out.append(input, prev, end);
+    return end;
+  }
+
+  /**
+   * See {@link #normalize(CharSequence, Representation, FitzpatrickAction)}
+   * with the action "PARSE"
+   *
+   * @param input          the sequence to normalize, scanned in place
+   * @param representation the representation of the emojis in the result
+   *
+   * @return the string with all the emojis in the given representation
+   */
+  public static String normalize(
+    CharSequence input,
+    Representation representation
+  ) {
+    return normalize(input, representation, FitzpatrickAction.PARSE);
+  }
+
+  /**
+   * Replaces all the emojis, whether they are written as unicode, as aliases
+   * or as html decimal or hexadecimal representations, by the given
+   * representation, in a single pass over the input.<br>
+   * Example: <code>:smile: &amp;#128516; &amp;#x1f604; 😄</code> is
+   * normalized to aliases as <code>:smile: :smile: :smile: :smile:</code><br>
+   * <br>
+   * A fitzpatrick modifier is either the type written in the alias
+   * (<code>:boy|type_6:</code>) or the modifier following the emoji, and is
+   * handled according to the fitzpatrick action like in
+   * {@link #parseToAliases(String, FitzpatrickAction)}.
+   *
+   * @param input             the sequence to normalize, scanned in place
+   * @param representation    the representation of the emojis in the result
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   *
+   * @return the string with all the emojis in the given representation
+   */
+  public static String normalize(
+    CharSequence input,
+    Representation representation,
+    FitzpatrickAction fitzpatrickAction
+  ) {
+    EmojiMatcher matcher = new EmojiMatcher(input, true);
+    if (!matcher.find()) {
+      // Nothing to replace, no need to copy the input
+      return input.toString();
+    }
+
+    StringBuilder sb = new StringBuilder(input.length());
+    try {
+      parseFromUnicode(
+        input,
+        input.length(),
+        matcher,
+        representation.appender(fitzpatrickAction),
+        sb
+      );
+    } catch (IOException e) {
+      // A StringBuilder never throws
+      throw new RuntimeException(e);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Same as {@link #normalize(CharSequence, Representation, FitzpatrickAction)},
+   * but writes the result to the given Appendable instead of returning a new
+   * String.
+   *
+   * @param input             the sequence to normalize, scanned in place
+   * @param representation    the representation of the emojis in the result
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while appending
+   */
+  public static void normalize(
+    CharSequence input,
+    Representation representation,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    EmojiMatcher matcher = new EmojiMatcher(input, true);
+    matcher.find();
+    parseFromUnicode(
+      input,
+      input.length(),
+      matcher,
+      representation.appender(fitzpatrickAction),
+      out
+    );
   }
 
   public static List<String> extractEmojis(String input) {
+    return extractEmojis((CharSequence) input);
+  }
+
+  /**
+   * Extracts the unicode of all the emojis of the given sequence, with their
+   * fitzpatrick modifier if any.
+   *
+   * @param input the sequence to process, scanned in place
+   *
+   * @return the unicode of the emojis, in their order of appearance
+   */
+  public static List<String> extractEmojis(CharSequence input) {
     List<UnicodeCandidate> emojis = getUnicodeCandidates(input);
     List<String> result = new ArrayList<String>();
     for (UnicodeCandidate emoji : emojis) {
@@ -422,11 +1062,20 @@ public class EmojiParser {
    * @return List of UnicodeCandidates for each unicode emote in text
    */
   protected static List<UnicodeCandidate> getUnicodeCandidates(String input) {
-    char[] inputCharArray = input.toCharArray();
+    return getUnicodeCandidates((CharSequence) input);
+  }
+
+  /**
+   * See {@link #getUnicodeCandidates(String)}
+   *
+   * @param input the sequence to find all unicode emojis in
+   * @return List of UnicodeCandidates for each unicode emote in text
+   */
+  protected static List<UnicodeCandidate> getUnicodeCandidates(CharSequence input) {
+    EmojiMatcher matcher = new EmojiMatcher(input);
     List<UnicodeCandidate> candidates = new ArrayList<UnicodeCandidate>();
-    UnicodeCandidate next;
-    for (int i = 0; (next = getNextUnicodeCandidate(inputCharArray, i)) != null; i = next.getFitzpatrickEndIndex()) {
-      candidates.add(next);
+    while (matcher.find()) {
+      candidates.add(new UnicodeCandidate(matcher));
     }
 
     return candidates;
@@ -440,23 +1089,19 @@ public class EmojiParser {
    * @return the next UnicodeCandidate or null if no UnicodeCandidate is found after start index
    */
   protected static UnicodeCandidate getNextUnicodeCandidate(char[] chars, int start) {
-    for (int i = start; i < chars.length; i++) {
-      int emojiEnd = getEmojiEndPos(chars, i);
-
-      if (emojiEnd != -1) {
-        Emoji emoji = EmojiManager.getByUnicode(new String(chars, i, emojiEnd - i));
-        String fitzpatrickString = (emojiEnd + 2 <= chars.length) ?
-                new String(chars, emojiEnd, 2) :
-                null;
-        return new UnicodeCandidate(
-                emoji,
-                fitzpatrickString,
-                i
-        );
-      }
-    }
+    return getNextUnicodeCandidate(CharBuffer.wrap(chars), start);
+  }
 
-    return null;
+  /**
+   * See {@link #getNextUnicodeCandidate(char[], int)}
+   *
+   * @param chars char sequence to find UnicodeCandidate in
+   * @param start starting index for search
+   * @return the next UnicodeCandidate or null if no UnicodeCandidate is found after start index
+   */
+  protected static UnicodeCandidate getNextUnicodeCandidate(CharSequence chars, int start) {
+    EmojiMatcher matcher = new EmojiMatcher(chars);
+    return matcher.find(start) ? new UnicodeCandidate(matcher) : null;
   }
 
 
@@ -475,18 +1120,112 @@ public class EmojiParser {
    * found
    */
   protected static int getEmojiEndPos(char[] text, int startPos) {
-    int best = -1;
-    for (int j = startPos + 1; j <= text.length; j++) {
-      EmojiTrie.Matches status = EmojiManager.EMOJI_TRIE.isEmoji(text, startPos, j);
-
-      if (status.exactMatch()) {
-        best = j;
-      } else if (status.impossibleMatch()) {
-        return best;
+    return getEmojiEndPos(CharBuffer.wrap(text), startPos);
+  }
+
+  /**
+   * See {@link #getEmojiEndPos(char[], int)}
+   *
+   * @param text the sequence where we are looking for an emoji
+   * @param startPos the position in the text where we should start looking for
+   * an emoji end
+   *
+   * @return the end index of the unicode emoji starting at startPos. -1 if not
+   * found
+   */
+  protected static int getEmojiEndPos(CharSequence text, int startPos) {
+    EmojiMatcher matcher = new EmojiMatcher(text);
+    return matcher.matchAt(startPos) ? matcher.emojiEnd() : -1;
+  }
+
+
+  static EmojiAppender aliasAppender(
+    final FitzpatrickAction fitzpatrickAction
+  ) {
+    return new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        Emoji emoji = match.emoji();
+        switch (fitzpatrickAction) {
+          default:
+          case PARSE:
+            out.append(emoji.getOutputForm(Emoji.FORM_ALIAS, match.fitzpatrick()));
+            break;
+          case REMOVE:
+            out.append(emoji.getOutputForm(Emoji.FORM_ALIAS, null));
+            break;
+          case IGNORE:
+            out.append(emoji.getOutputForm(
+              Emoji.FORM_ALIAS_AND_UNICODE,
+              match.fitzpatrick()
+            ));
+            break;
+        }
       }
-    }
+    };
+  }
 
-    return best;
+  static EmojiAppender unicodeAppender(
+    final FitzpatrickAction fitzpatrickAction
+  ) {
+    return new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        Fitzpatrick fitzpatrick =
+          fitzpatrickAction == FitzpatrickAction.REMOVE ?
+            null :
+            match.fitzpatrick();
+        out.append(match.emoji().getOutputForm(Emoji.FORM_UNICODE, fitzpatrick));
+      }
+    };
+  }
+
+  static EmojiAppender htmlAppender(
+    boolean hexadecimal,
+    final FitzpatrickAction fitzpatrickAction
+  ) {
+    final int form = hexadecimal ?
+      Emoji.FORM_HTML_HEXADECIMAL :
+      Emoji.FORM_HTML_DECIMAL;
+    return new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        Fitzpatrick fitzpatrick =
+          fitzpatrickAction == FitzpatrickAction.IGNORE ?
+            match.fitzpatrick() :
+            null;
+        out.append(match.emoji().getOutputForm(form, fitzpatrick));
+      }
+    };
+  }
+
+  static EmojiAppender replacementAppender(final String replacement) {
+    return new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        out.append(replacement);
+      }
+    };
+  }
+
+  private static EmojiAppender filterAppender(
+    final Collection<Emoji> emojis,
+    final boolean keep
+  ) {
+    return new EmojiAppender() {
+      // Each match is tested with a bit test instead of Collection.contains.
+      // The copy is only made once an emoji is found, so that the strings
+      // without emojis are returned without iterating the collection.
+      private EmojiSet set;
+
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        if (set == null) {
+          set = EmojiSet.copyOfKnown(emojis);
+        }
+        if (set.contains(match.emoji()) == keep) {
+          out.append(match.emoji().getOutputForm(
+            Emoji.FORM_UNICODE,
+            match.fitzpatrick()
+          ));
+        }
+      }
+    };
   }
 
 
@@ -495,10 +1234,10 @@ public class EmojiParser {
     private final Fitzpatrick fitzpatrick;
     private final int startIndex;
 
-    private UnicodeCandidate(Emoji emoji, String fitzpatrick, int startIndex) {
-      this.emoji = emoji;
-      this.fitzpatrick = Fitzpatrick.fitzpatrickFromUnicode(fitzpatrick);
-      this.startIndex = startIndex;
+    private UnicodeCandidate(EmojiMatcher matcher) {
+      this.emoji = matcher.emoji();
+      this.fitzpatrick = matcher.fitzpatrick();
+      this.startIndex = matcher.start();
     }
 
     public Emoji getEmoji() {
@@ -514,7 +1253,7 @@ public class EmojiParser {
     }
 
     public String getFitzpatrickType() {
-      return hasFitzpatrick() ? fitzpatrick.name().toLowerCase() : "";
+      return hasFitzpatrick() ? fitzpatrick.type : "";
     }
 
     public String getFitzpatrickUnicode() {
@@ -570,7 +1309,67 @@ public class EmojiParser {
     IGNORE
   }
 
+  /**
+   * Enum used to indicate the representation of the emojis written by
+   * {@link #normalize(CharSequence, Representation, FitzpatrickAction)}.
+   */
+  public enum Representation {
+    /**
+     * The unicode of the emoji, <code>😄</code>
+     */
+    UNICODE {
+      EmojiAppender appender(FitzpatrickAction fitzpatrickAction) {
+        return unicodeAppender(fitzpatrickAction);
+      }
+    },
+
+    /**
+     * The first alias of the emoji, <code>:smile:</code>
+     */
+    ALIAS {
+      EmojiAppender appender(FitzpatrickAction fitzpatrickAction) {
+        return aliasAppender(fitzpatrickAction);
+      }
+    },
+
+    /**
+     * The html decimal representation, <code>&amp;#128516;</code>
+     */
+    HTML_DECIMAL {
+      EmojiAppender appender(FitzpatrickAction fitzpatrickAction) {
+        return htmlAppender(false, fitzpatrickAction);
+      }
+    },
+
+    /**
+     * The html hexadecimal representation, <code>&amp;#x1f604;</code>
+     */
+    HTML_HEXADECIMAL {
+      EmojiAppender appender(FitzpatrickAction fitzpatrickAction) {
+        return htmlAppender(true, fitzpatrickAction);
+      }
+    };
+
+    abstract EmojiAppender appender(FitzpatrickAction fitzpatrickAction);
+  }
+
   public interface EmojiTransformer {
     String transform(UnicodeCandidate unicodeCandidate);
   }
+
+  /**
+   * Variant of the {@link EmojiTransformer} that appends the replacement of
+   * an emoji to the output instead of returning a new String.
+   */
+  public interface EmojiAppender {
+    /**
+     * Appends the replacement of the current match of the matcher.
+     *
+     * @param match the matcher, positioned on the emoji to replace
+     * @param out   the Appendable receiving the replacement
+     *
+     * @throws IOException if an I/O error occurs while appending
+     */
+    void append(EmojiMatcher match, Appendable out) throws IOException;
+  }
 }
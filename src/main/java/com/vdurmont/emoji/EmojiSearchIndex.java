@@ -0,0 +1,196 @@
+package com.vdurmont.emoji;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index over the words of the descriptions, tags and aliases of the
+ * emojis. Each word has a posting list: the ordinals of the emojis containing
+ * it, in increasing order, with a weight telling in which field it was found.
+ * <br>
+ * A search ranks first the emojis containing the most words of the query,
+ * then by score: the sum of the weights of the query words they contain,
+ * scaled by how rare each word is. A word that is a whole alias or a whole
+ * tag weighs more than the same word inside a longer one, so that
+ * <code>heart</code> finds the emoji aliased "heart" before "heart_eyes".
+ */
+class EmojiSearchIndex {
+  private static final byte DESCRIPTION_WEIGHT = 1;
+  private static final byte TAG_WEIGHT = 2;
+  private static final byte ALIAS_WEIGHT = 3;
+  private static final byte WHOLE_TAG_WEIGHT = 4;
+  private static final byte WHOLE_ALIAS_WEIGHT = 6;
+
+  private final Map<String, Postings> postingsByWord =
+    new HashMap<String, Postings>();
+  private final int emojiCount;
+
+  EmojiSearchIndex(Emoji[] emojisByOrdinal) {
+    this.emojiCount = emojisByOrdinal.length;
+    Map<String, Byte> words = new HashMap<String, Byte>();
+    for (int ordinal = 0; ordinal < emojisByOrdinal.length; ordinal++) {
+      Emoji emoji = emojisByOrdinal[ordinal];
+      words.clear();
+      addWords(
+        words,
+        emoji.getDescription(),
+        DESCRIPTION_WEIGHT,
+        DESCRIPTION_WEIGHT
+      );
+      for (String tag : emoji.getTags()) {
+        addWords(words, tag, TAG_WEIGHT, WHOLE_TAG_WEIGHT);
+      }
+      for (String alias : emoji.getAliases()) {
+        addWords(words, alias, ALIAS_WEIGHT, WHOLE_ALIAS_WEIGHT);
+      }
+
+      for (Map.Entry<String, Byte> word : words.entrySet()) {
+        Postings postings = postingsByWord.get(word.getKey());
+        if (postings == null) {
+          postings = new Postings();
+          postingsByWord.put(word.getKey(), postings);
+        }
+        postings.add(ordinal, word.getValue());
+      }
+    }
+    for (Postings postings : postingsByWord.values()) {
+      postings.trim();
+    }
+  }
+
+  /**
+   * Returns the emojis matching at least one word of the query, the best
+   * ones first. The emojis ranked equally are in ordinal order.
+   *
+   * @param query the words to search
+   * @param limit the maximum number of emojis to return
+   *
+   * @return the matching emojis
+   */
+  List<Emoji> search(String query, int limit) {
+    List<Postings> matched = new ArrayList<Postings>();
+    int postingCount = 0;
+    for (String word : new HashSet<String>(tokenize(query))) {
+      Postings postings = postingsByWord.get(word);
+      if (postings != null) {
+        matched.add(postings);
+        postingCount += postings.size;
+      }
+    }
+    if (matched.isEmpty() || limit <= 0) {
+      return new ArrayList<Emoji>();
+    }
+
+    final float[] scores = new float[emojiCount];
+    final int[] wordCounts = new int[emojiCount];
+    int[] matches = new int[Math.min(postingCount, emojiCount)];
+    int matchCount = 0;
+    for (Postings postings : matched) {
+      // The rarer the word, the more it counts
+      float idf = (float) Math.log(1 + (double) emojiCount / postings.size);
+      for (int i = 0; i < postings.size; i++) {
+        int ordinal = postings.ordinals[i];
+        if (wordCounts[ordinal]++ == 0) {
+          matches[matchCount++] = ordinal;
+        }
+        scores[ordinal] += idf * postings.weights[i];
+      }
+    }
+
+    Integer[] ranked = new Integer[matchCount];
+    for (int i = 0; i < matchCount; i++) {
+      ranked[i] = matches[i];
+    }
+    Arrays.sort(ranked, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        int result = wordCounts[o2] - wordCounts[o1];
+        if (result == 0) {
+          result = Float.compare(scores[o2], scores[o1]);
+        }
+        return result != 0 ? result : o1 - o2;
+      }
+    });
+
+    int size = Math.min(limit, matchCount);
+    List<Emoji> result = new ArrayList<Emoji>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(EmojiManager.getByOrdinal(ranked[i]));
+    }
+    return result;
+  }
+
+  /**
+   * Adds the words of a text with the given weight, or with the whole weight
+   * if the text is a single word.
+   */
+  private static void addWords(
+    Map<String, Byte> words,
+    String text,
+    byte weight,
+    byte wholeWeight
+  ) {
+    List<String> tokens = tokenize(text);
+    if (tokens.size() == 1 && tokens.get(0).equalsIgnoreCase(text)) {
+      weight = wholeWeight;
+    }
+    for (String word : tokens) {
+      Byte previous = words.get(word);
+      if (previous == null || previous < weight) {
+        words.put(word, weight);
+      }
+    }
+  }
+
+  /**
+   * Splits a text in lowercase words made of letters and digits.
+   */
+  private static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<String>();
+    if (text == null) {
+      return words;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean inWord = i < text.length() &&
+        Character.isLetterOrDigit(text.charAt(i));
+      if (inWord && start < 0) {
+        start = i;
+      } else if (!inWord && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * The ordinals of the emojis containing a word, with the weight of the
+   * field where the word was found.
+   */
+  private static class Postings {
+    private int[] ordinals = new int[4];
+    private byte[] weights = new byte[4];
+    private int size;
+
+    private void add(int ordinal, byte weight) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+        weights = Arrays.copyOf(weights, size * 2);
+      }
+      ordinals[size] = ordinal;
+      weights[size] = weight;
+      size++;
+    }
+
+    private void trim() {
+      ordinals = Arrays.copyOf(ordinals, size);
+      weights = Arrays.copyOf(weights, size);
+    }
+  }
+}
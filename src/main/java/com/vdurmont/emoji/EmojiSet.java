@@ -0,0 +1,232 @@
+package com.vdurmont.emoji;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A Set of emojis backed by a bit set, where each emoji is represented by the
+ * bit of its ordinal in the {@link EmojiManager}: testing if an emoji belongs
+ * to the set is a single bit test, without hashing its unicode.<br>
+ * <br>
+ * Only the emojis known by the EmojiManager can be added to the set. The
+ * other emojis are looked up by unicode, like {@link Emoji#equals(Object)}
+ * does.<br>
+ * <br>
+ * An EmojiSet is not thread-safe, except the unmodifiable ones returned by
+ * {@link EmojiManager#getForTag(String)}, that can be shared freely.
+ */
+public class EmojiSet extends AbstractSet<Emoji> {
+  private final BitSet bits;
+  private int size;
+  private final boolean modifiable;
+
+  /**
+   * Creates an empty set.
+   */
+  public EmojiSet() {
+    this(new BitSet(EmojiManager.getOrdinalCount()), 0, true);
+  }
+
+  private EmojiSet(BitSet bits, int size, boolean modifiable) {
+    this.bits = bits;
+    this.size = size;
+    this.modifiable = modifiable;
+  }
+
+  /**
+   * Creates a set containing the given emojis.
+   *
+   * @param emojis the emojis to add to the set
+   *
+   * @throws IllegalArgumentException if an emoji is unknown to the
+   * EmojiManager
+   */
+  public EmojiSet(Collection<? extends Emoji> emojis) {
+    this();
+    addAll(emojis);
+  }
+
+  /**
+   * Returns an unmodifiable set of the emojis of the given ordinals. Its bits
+   * stop at the highest ordinal instead of covering all the emojis, which
+   * saves most of them for the small sets like the tags.
+   *
+   * @param ordinals the ordinals of the emojis, without duplicates
+   *
+   * @return the set
+   */
+  static EmojiSet unmodifiableOf(int[] ordinals) {
+    int max = -1;
+    for (int ordinal : ordinals) {
+      max = Math.max(max, ordinal);
+    }
+    BitSet bits = new BitSet(max + 1);
+    for (int ordinal : ordinals) {
+      bits.set(ordinal);
+    }
+    return new EmojiSet(bits, ordinals.length, false);
+  }
+
+  /**
+   * Returns the given collection if it is an EmojiSet, or a new EmojiSet with
+   * the emojis of the collection known to the EmojiManager.
+   */
+  static EmojiSet copyOfKnown(Collection<?> emojis) {
+    if (emojis instanceof EmojiSet) {
+      return (EmojiSet) emojis;
+    }
+    EmojiSet set = new EmojiSet();
+    for (Object o : emojis) {
+      int ordinal = ordinalOf(o);
+      if (ordinal >= 0 && !set.bits.get(ordinal)) {
+        set.bits.set(ordinal);
+        set.size++;
+      }
+    }
+    return set;
+  }
+
+  boolean containsOrdinal(int ordinal) {
+    return bits.get(ordinal);
+  }
+
+  /**
+   * Returns the first ordinal of the set that is greater or equal to the
+   * given one, -1 if there is none.
+   */
+  int nextOrdinal(int from) {
+    return bits.nextSetBit(from);
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    int ordinal = ordinalOf(o);
+    return ordinal >= 0 && bits.get(ordinal);
+  }
+
+  @Override
+  public boolean add(Emoji emoji) {
+    checkModifiable();
+    int ordinal = EmojiManager.ordinalOf(emoji);
+    if (ordinal < 0) {
+      throw new IllegalArgumentException(
+        "Unknown emoji: " + emoji.getUnicode()
+      );
+    }
+    if (bits.get(ordinal)) {
+      return false;
+    }
+    bits.set(ordinal);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    checkModifiable();
+    int ordinal = ordinalOf(o);
+    if (ordinal < 0 || !bits.get(ordinal)) {
+      return false;
+    }
+    bits.clear(ordinal);
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Emoji> emojis) {
+    checkModifiable();
+    if (!(emojis instanceof EmojiSet)) {
+      return super.addAll(emojis);
+    }
+    bits.or(((EmojiSet) emojis).bits);
+    return updateSize();
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> emojis) {
+    checkModifiable();
+    if (!(emojis instanceof EmojiSet)) {
+      return super.removeAll(emojis);
+    }
+    bits.andNot(((EmojiSet) emojis).bits);
+    return updateSize();
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> emojis) {
+    checkModifiable();
+    if (!(emojis instanceof EmojiSet)) {
+      return super.retainAll(emojis);
+    }
+    bits.and(((EmojiSet) emojis).bits);
+    return updateSize();
+  }
+
+  @Override
+  public void clear() {
+    checkModifiable();
+    bits.clear();
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<Emoji> iterator() {
+    return new Iterator<Emoji>() {
+      private int next = bits.nextSetBit(0);
+      private int last = -1;
+
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      public Emoji next() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        last = next;
+        next = bits.nextSetBit(next + 1);
+        return EmojiManager.getByOrdinal(last);
+      }
+
+      public void remove() {
+        checkModifiable();
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        bits.clear(last);
+        size--;
+        last = -1;
+      }
+    };
+  }
+
+  /**
+   * Recomputes the size after a bulk operation on the bits.
+   *
+   * @return true if the size changed
+   */
+  private boolean updateSize() {
+    int previous = size;
+    size = bits.cardinality();
+    return size != previous;
+  }
+
+  private void checkModifiable() {
+    if (!modifiable) {
+      throw new UnsupportedOperationException("Unmodifiable EmojiSet");
+    }
+  }
+
+  private static int ordinalOf(Object o) {
+    return o instanceof Emoji ? EmojiManager.ordinalOf((Emoji) o) : -1;
+  }
+}
@@ -0,0 +1,239 @@
+package com.vdurmont.emoji;
+
+import com.vdurmont.emoji.EmojiParser.EmojiAppender;
+import com.vdurmont.emoji.EmojiParser.FitzpatrickAction;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Provides the transformations of the {@link EmojiParser} for inputs that are
+ * too large to be held in memory: the input is read from a Reader through a
+ * bounded buffer and the result is written to an Appendable (a Writer for
+ * example) as it goes.<br>
+ * <br>
+ * The emojis, aliases and html representations that straddle two reads are
+ * handled by keeping the end of the buffer, where a match could still start,
+ * for the next read.<br>
+ * <br>
+ * To process bytes coming from a {@link java.nio.channels.ReadableByteChannel}
+ * or an {@link java.io.InputStream}, wrap them in a Reader with
+ * {@link java.nio.channels.Channels#newReader} or an
+ * {@link java.io.InputStreamReader}.
+ */
+public class EmojiStreamParser {
+  static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  // The longest fitzpatrick suffix of an alias, "|type_1_2"
+  private static final int MAX_FITZPATRICK_SUFFIX_LENGTH = 9;
+
+  // Number of chars that must be available after the start of an emoji to be
+  // sure to find the longest one, including its fitzpatrick modifier
+  private static final int UNICODE_LOOKAHEAD =
+    EmojiManager.EMOJI_TRIE.maxDepth + 2;
+  // Same for the aliases and the html representations
+  private static final int ALIAS_AND_HTML_LOOKAHEAD = Math.max(
+    EmojiManager.ALIAS_TRIE.maxDepth + MAX_FITZPATRICK_SUFFIX_LENGTH + 2,
+    EmojiManager.EMOJI_TRIE.maxDepth * EmojiParser.MAX_HTML_CODE_POINT_LENGTH
+  );
+
+  /**
+   * No need for a constructor, all the methods are static.
+   */
+  private EmojiStreamParser() {}
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#parseToAliases(CharSequence, FitzpatrickAction, Appendable)}
+   *
+   * @param in                the reader to parse, read until its end
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void parseToAliases(
+    Reader in,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(in, EmojiParser.aliasAppender(fitzpatrickAction), out);
+  }
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#parseToHtmlDecimal(CharSequence, FitzpatrickAction, Appendable)}
+   *
+   * @param in                the reader to parse, read until its end
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void parseToHtmlDecimal(
+    Reader in,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(
+      in,
+      EmojiParser.htmlAppender(false, fitzpatrickAction),
+      out
+    );
+  }
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#parseToHtmlHexadecimal(CharSequence, FitzpatrickAction, Appendable)}
+   *
+   * @param in                the reader to parse, read until its end
+   * @param fitzpatrickAction the action to apply for the fitzpatrick modifiers
+   * @param out               the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void parseToHtmlHexadecimal(
+    Reader in,
+    FitzpatrickAction fitzpatrickAction,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(
+      in,
+      EmojiParser.htmlAppender(true, fitzpatrickAction),
+      out
+    );
+  }
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#removeAllEmojis(CharSequence, Appendable)}
+   *
+   * @param in  the reader to process, read until its end
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void removeAllEmojis(
+    Reader in,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(in, EmojiParser.replacementAppender(""), out);
+  }
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#parseFromUnicode(CharSequence, EmojiAppender, Appendable)}
+   *
+   * @param in       the reader to process, read until its end
+   * @param appender emoji appender to apply to each emoji
+   * @param out      the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void parseFromUnicode(
+    Reader in,
+    EmojiAppender appender,
+    Appendable out
+  ) throws IOException {
+    parseFromUnicode(in, appender, out, DEFAULT_BUFFER_SIZE);
+  }
+
+  static void parseFromUnicode(
+    Reader in,
+    final EmojiAppender appender,
+    Appendable out,
+    int bufferSize
+  ) throws IOException {
+    transform(in, out, bufferSize, UNICODE_LOOKAHEAD, new Step() {
+      public int process(
+        CharSequence text,
+        int limit,
+        Appendable out
+      ) throws IOException {
+        return EmojiParser.parseFromUnicode(text, limit, appender, out);
+      }
+    });
+  }
+
+  /**
+   * Streaming version of
+   * {@link EmojiParser#parseToUnicode(CharSequence, Appendable)}
+   *
+   * @param in  the reader to parse, read until its end
+   * @param out the Appendable receiving the result
+   *
+   * @throws IOException if an I/O error occurs while reading or appending
+   */
+  public static void parseToUnicode(
+    Reader in,
+    Appendable out
+  ) throws IOException {
+    parseToUnicode(in, out, DEFAULT_BUFFER_SIZE);
+  }
+
+  static void parseToUnicode(
+    Reader in,
+    Appendable out,
+    int bufferSize
+  ) throws IOException {
+    transform(in, out, bufferSize, ALIAS_AND_HTML_LOOKAHEAD, new Step() {
+      public int process(
+        CharSequence text,
+        int limit,
+        Appendable out
+      ) throws IOException {
+        return EmojiParser.parseToUnicode(text, limit, out);
+      }
+    });
+  }
+
+  /**
+   * Fills the buffer, lets the step process the matches that start far
+   * enough from the end of the buffer to be complete, then moves the chars
+   * that were not processed to the beginning of the buffer and reads again.
+   */
+  private static void transform(
+    Reader in,
+    Appendable out,
+    int bufferSize,
+    int lookahead,
+    Step step
+  ) throws IOException {
+    char[] buffer = new char[Math.max(bufferSize, lookahead + 1)];
+    int length = 0;
+    boolean endOfInput = false;
+    while (true) {
+      while (!endOfInput && length < buffer.length) {
+        int read = in.read(buffer, length, buffer.length - length);
+        if (read == -1) {
+          endOfInput = true;
+        } else {
+          length += read;
+        }
+      }
+
+      CharSequence text = CharBuffer.wrap(buffer, 0, length);
+      int limit = endOfInput ? length : length - lookahead;
+      int end = step.process(text, limit, out);
+      if (endOfInput) {
+        return;
+      }
+
+      System.arraycopy(buffer, end, buffer, 0, length - end);
+      length -= end;
+    }
+  }
+
+  private interface Step {
+    /**
+     * Processes the matches starting before limit and returns the index of
+     * the first char that was not written to out.
+     */
+    int process(
+      CharSequence text,
+      int limit,
+      Appendable out
+    ) throws IOException;
+  }
+}
@@ -0,0 +1,277 @@
+package com.vdurmont.emoji;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A boolean expression over the tags of the emojis, evaluated on the bit sets
+ * of the tag index of the {@link EmojiManager}.<br>
+ * <br>
+ * Example:
+ * <pre>
+ * EmojiTagQuery query = EmojiTagQuery.anyOf("happy", "joy")
+ *   .and(EmojiTagQuery.tag("face"))
+ *   .andNot(EmojiTagQuery.tag("cat"));
+ * boolean matches = query.matches(emoji);
+ * Set&lt;Emoji&gt; emojis = query.emojis();
+ * </pre>
+ * Testing an emoji is a few bit tests and builds nothing. The set returned by
+ * {@link #emojis()} is a view that computes its elements while it is
+ * iterated.<br>
+ * <br>
+ * A query is immutable and can be shared between threads.
+ */
+public abstract class EmojiTagQuery {
+  private static final EmojiTagQuery NONE = new Tag(new EmojiSet());
+
+  private EmojiTagQuery() {}
+
+  /**
+   * Creates a query matching the emojis with the given tag.
+   *
+   * @param tag the tag
+   *
+   * @return the query, matching no emoji if the tag is unknown
+   */
+  public static EmojiTagQuery tag(String tag) {
+    return new Tag(EmojiManager.getTagSet(tag));
+  }
+
+  /**
+   * Creates a query matching the emojis with all the given tags.
+   *
+   * @param tags the tags
+   *
+   * @return the query, matching all the emojis if there is no tag
+   */
+  public static EmojiTagQuery allOf(String... tags) {
+    if (tags.length == 0) {
+      return NONE.not();
+    }
+    EmojiTagQuery query = tag(tags[0]);
+    for (int i = 1; i < tags.length; i++) {
+      query = query.and(tag(tags[i]));
+    }
+    return query;
+  }
+
+  /**
+   * Creates a query matching the emojis with at least one of the given tags.
+   *
+   * @param tags the tags
+   *
+   * @return the query, matching no emoji if there is no tag
+   */
+  public static EmojiTagQuery anyOf(String... tags) {
+    if (tags.length == 0) {
+      return NONE;
+    }
+    EmojiTagQuery query = tag(tags[0]);
+    for (int i = 1; i < tags.length; i++) {
+      query = query.or(tag(tags[i]));
+    }
+    return query;
+  }
+
+  /**
+   * Creates a query matching the emojis matched by this query and the other.
+   *
+   * @param other the other query
+   *
+   * @return the new query
+   */
+  public EmojiTagQuery and(EmojiTagQuery other) {
+    return new And(this, other);
+  }
+
+  /**
+   * Creates a query matching the emojis matched by this query or the other.
+   *
+   * @param other the other query
+   *
+   * @return the new query
+   */
+  public EmojiTagQuery or(EmojiTagQuery other) {
+    return new Or(this, other);
+  }
+
+  /**
+   * Creates a query matching the emojis matched by this query but not by the
+   * other.
+   *
+   * @param other the other query
+   *
+   * @return the new query
+   */
+  public EmojiTagQuery andNot(EmojiTagQuery other) {
+    return new And(this, new Not(other));
+  }
+
+  /**
+   * Creates a query matching the emojis that this query does not match.
+   *
+   * @return the new query
+   */
+  public EmojiTagQuery not() {
+    return new Not(this);
+  }
+
+  /**
+   * Tests if the given emoji matches the query.
+   *
+   * @param emoji the emoji to test
+   *
+   * @return true if the emoji matches, false otherwise
+   */
+  public boolean matches(Emoji emoji) {
+    int ordinal = emoji == null ? -1 : EmojiManager.ordinalOf(emoji);
+    return ordinal >= 0 && matches(ordinal);
+  }
+
+  /**
+   * Returns a read-only view of the emojis matching the query. The view does
+   * not copy anything: its elements are computed while it is iterated, and
+   * contains() is the same as {@link #matches(Emoji)}.
+   *
+   * @return the emojis matching the query
+   */
+  public Set<Emoji> emojis() {
+    return new AbstractSet<Emoji>() {
+      @Override
+      public boolean contains(Object o) {
+        return o instanceof Emoji && matches((Emoji) o);
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return nextMatch(0) < 0;
+      }
+
+      @Override
+      public int size() {
+        int size = 0;
+        for (int i = nextMatch(0); i >= 0; i = nextMatch(i + 1)) {
+          size++;
+        }
+        return size;
+      }
+
+      @Override
+      public Iterator<Emoji> iterator() {
+        return new Iterator<Emoji>() {
+          private int next = nextMatch(0);
+
+          public boolean hasNext() {
+            return next >= 0;
+          }
+
+          public Emoji next() {
+            if (next < 0) {
+              throw new NoSuchElementException();
+            }
+            Emoji emoji = EmojiManager.getByOrdinal(next);
+            next = nextMatch(next + 1);
+            return emoji;
+          }
+
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  abstract boolean matches(int ordinal);
+
+  /**
+   * Returns the first matching ordinal that is greater or equal to the given
+   * one, -1 if there is none.
+   */
+  abstract int nextMatch(int from);
+
+
+  private static class Tag extends EmojiTagQuery {
+    private final EmojiSet emojis;
+
+    private Tag(EmojiSet emojis) {
+      this.emojis = emojis;
+    }
+
+    boolean matches(int ordinal) {
+      return emojis.containsOrdinal(ordinal);
+    }
+
+    int nextMatch(int from) {
+      return emojis.nextOrdinal(from);
+    }
+  }
+
+  private static class And extends EmojiTagQuery {
+    private final EmojiTagQuery left;
+    private final EmojiTagQuery right;
+
+    private And(EmojiTagQuery left, EmojiTagQuery right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    boolean matches(int ordinal) {
+      return left.matches(ordinal) && right.matches(ordinal);
+    }
+
+    int nextMatch(int from) {
+      int next = left.nextMatch(from);
+      while (next >= 0 && !right.matches(next)) {
+        next = left.nextMatch(next + 1);
+      }
+      return next;
+    }
+  }
+
+  private static class Or extends EmojiTagQuery {
+    private final EmojiTagQuery left;
+    private final EmojiTagQuery right;
+
+    private Or(EmojiTagQuery left, EmojiTagQuery right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    boolean matches(int ordinal) {
+      return left.matches(ordinal) || right.matches(ordinal);
+    }
+
+    int nextMatch(int from) {
+      int leftNext = left.nextMatch(from);
+      int rightNext = right.nextMatch(from);
+      if (leftNext < 0 || rightNext < 0) {
+        return Math.max(leftNext, rightNext);
+      }
+      return Math.min(leftNext, rightNext);
+    }
+  }
+
+  private static class Not extends EmojiTagQuery {
+    private final EmojiTagQuery query;
+
+    private Not(EmojiTagQuery query) {
+      this.query = query;
+    }
+
+    boolean matches(int ordinal) {
+      return !query.matches(ordinal);
+    }
+
+    int nextMatch(int from) {
+      for (int i = from; i < EmojiManager.getOrdinalCount(); i++) {
+        if (!query.matches(i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
@@ -1,28 +1,194 @@
 package com.vdurmont.emoji;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Matches sequences of chars against the unicode of the emojis.<br>
+ * <br>
+ * The trie is built from a tree of nodes, then flattened into arrays where
+ * each node becomes an int state. The nodes are numbered breadth-first, so
+ * the children of a state are stored next to each other and the transition
+ * found at index i of the edge table always leads to the state i + 1: the
+ * whole trie is held by one char array, one int array and one Emoji array.
+ */
 public class EmojiTrie {
-  private final Node root = new Node();
+  private static final int ROOT = 0;
+  private static final int NO_STATE = -1;
+
+  // The chars of the transitions, sorted for each state
+  private final char[] edgeChars;
+  // The transitions of state s are in [firstEdge[s], firstEdge[s + 1])
+  private final int[] firstEdge;
+  // The emoji matched when reaching a state, if any
+  private final Emoji[] emojis;
+  // Dense lookup table for the transitions of the root, split in pages of 256
+  // chars that are only allocated when an emoji starts in them
+  private final int[][] rootPages = new int[256][];
+  // One bit per char that starts at least one emoji
+  private final long[] firstChars = new long[1024];
   final int maxDepth;
 
   public EmojiTrie(Collection<Emoji> emojis) {
+    this(emojis, Keys.UNICODE);
+  }
+
+  /**
+   * Builds a trie that matches the UTF-8 encoding of the emojis instead of
+   * their chars. Each byte is stored as a char in the range [0, 255], so the
+   * bytes must be walked as <code>(char) (b &amp; 0xFF)</code>.
+   *
+   * @param emojis the emojis to match
+   *
+   * @return the trie of the UTF-8 bytes of the emojis
+   */
+  static EmojiTrie utf8(Collection<Emoji> emojis) {
+    return new EmojiTrie(emojis, Keys.UTF8);
+  }
+
+  /**
+   * Builds a trie that matches the aliases of the emojis, without the
+   * surrounding colons. When several emojis share an alias, the last one
+   * wins, like in {@link EmojiManager#getForAlias(String)}.
+   *
+   * @param emojis the emojis to match
+   *
+   * @return the trie of the aliases of the emojis
+   */
+  static EmojiTrie aliases(Collection<Emoji> emojis) {
+    return new EmojiTrie(emojis, Keys.ALIASES);
+  }
+
+  private EmojiTrie(Collection<Emoji> emojis, Keys keys) {
+    Node root = new Node();
     int maxDepth = 0;
     for (Emoji emoji : emojis) {
-      Node tree = root;
-      char[] chars = emoji.getUnicode().toCharArray();
-      maxDepth = Math.max(maxDepth, chars.length);
-      for (char c: chars) {
-        if (!tree.hasChild(c)) {
-          tree.addChild(c);
+      for (char[] chars : keys.of(emoji)) {
+        Node tree = root;
+        maxDepth = Math.max(maxDepth, chars.length);
+        for (char c: chars) {
+          tree = tree.getOrAddChild(c);
         }
-        tree = tree.getChild(c);
+        tree.emoji = emoji;
       }
-      tree.setEmoji(emoji);
     }
     this.maxDepth = maxDepth;
+
+    List<Node> states = new ArrayList<Node>();
+    states.add(root);
+    for (int i = 0; i < states.size(); i++) {
+      states.addAll(Arrays.asList(states.get(i).children));
+    }
+
+    this.edgeChars = new char[states.size() - 1];
+    this.firstEdge = new int[states.size() + 1];
+    this.emojis = new Emoji[states.size()];
+    int edge = 0;
+    for (int state = 0; state < states.size(); state++) {
+      Node node = states.get(state);
+      firstEdge[state] = edge;
+      this.emojis[state] = node.emoji;
+      System.arraycopy(node.keys, 0, edgeChars, edge, node.keys.length);
+      edge += node.keys.length;
+    }
+    firstEdge[states.size()] = edge;
+    indexRoot();
+  }
+
+  private EmojiTrie(
+    char[] edgeChars,
+    int[] firstEdge,
+    Emoji[] emojis,
+    int maxDepth
+  ) {
+    this.edgeChars = edgeChars;
+    this.firstEdge = firstEdge;
+    this.emojis = emojis;
+    this.maxDepth = maxDepth;
+    indexRoot();
+  }
+
+  /**
+   * Fills the dense lookup table and the first chars of the root.
+   */
+  private void indexRoot() {
+    for (int i = firstEdge[ROOT]; i < firstEdge[ROOT + 1]; i++) {
+      char c = edgeChars[i];
+      if (rootPages[c >>> 8] == null) {
+        rootPages[c >>> 8] = new int[256];
+      }
+      rootPages[c >>> 8][c & 0xFF] = i + 1;
+      firstChars[c >>> 6] |= 1L << c;
+    }
+  }
+
+  /**
+   * Writes the tables of the trie, with the emojis given by their ordinals,
+   * so that {@link #read(ByteBuffer, Emoji[])} can restore it without
+   * building the tree again.
+   *
+   * @param out the stream to write to
+   *
+   * @throws IOException if the stream cannot be written
+   */
+  void write(DataOutputStream out) throws IOException {
+    out.writeInt(maxDepth);
+    out.writeInt(emojis.length);
+    for (char c : edgeChars) {
+      out.writeChar(c);
+    }
+    for (int edge : firstEdge) {
+      out.writeInt(edge);
+    }
+    for (Emoji emoji : emojis) {
+      out.writeInt(emoji == null ? -1 : emoji.ordinal());
+    }
+  }
+
+  /**
+   * Reads a trie written by {@link #write(DataOutputStream)}.
+   *
+   * @param buffer          the buffer to read from, at the start of the trie
+   * @param emojisByOrdinal the emojis referenced by the trie
+   *
+   * @return the trie
+   */
+  static EmojiTrie read(ByteBuffer buffer, Emoji[] emojisByOrdinal) {
+    int maxDepth = buffer.getInt();
+    int stateCount = buffer.getInt();
+    char[] edgeChars = new char[stateCount - 1];
+    buffer.asCharBuffer().get(edgeChars);
+    buffer.position(buffer.position() + 2 * edgeChars.length);
+    int[] firstEdge = new int[stateCount + 1];
+    buffer.asIntBuffer().get(firstEdge);
+    buffer.position(buffer.position() + 4 * firstEdge.length);
+    Emoji[] emojis = new Emoji[stateCount];
+    for (int state = 0; state < stateCount; state++) {
+      int ordinal = buffer.getInt();
+      emojis[state] = ordinal < 0 ? null : emojisByOrdinal[ordinal];
+    }
+    return new EmojiTrie(edgeChars, firstEdge, emojis, maxDepth);
+  }
+
+
+  private static char[] getUtf8Chars(String unicode) {
+    try {
+      byte[] bytes = unicode.getBytes("UTF-8");
+      char[] chars = new char[bytes.length];
+      for (int i = 0; i < bytes.length; i++) {
+        chars[i] = (char) (bytes[i] & 0xFF);
+      }
+      return chars;
+    } catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
   }
 
 
@@ -62,15 +228,15 @@ public class EmojiTrie {
       return Matches.POSSIBLY;
     }
 
-    Node tree = root;
+    int state = ROOT;
     for (int i = start; i < end; i++) {
-      if (!tree.hasChild(sequence[i])) {
+      state = next(state, sequence[i]);
+      if (state == NO_STATE) {
         return Matches.IMPOSSIBLE;
       }
-      tree = tree.getChild(sequence[i]);
     }
 
-    return tree.isEndOfEmoji() ? Matches.EXACTLY : Matches.POSSIBLY;
+    return emojis[state] != null ? Matches.EXACTLY : Matches.POSSIBLY;
   }
 
 
@@ -89,14 +255,75 @@ public class EmojiTrie {
               "start " + start + ", end " + end + ", length " + sequence.length);
     }
 
-    Node tree = root;
-    for (int i = 0; i < end; i++) {
-      if (!tree.hasChild(sequence[i])) {
+    int state = ROOT;
+    for (int i = start; i < end; i++) {
+      state = next(state, sequence[i]);
+      if (state == NO_STATE) {
         return null;
       }
-      tree = tree.getChild(sequence[i]);
     }
-    return tree.getEmoji();
+    return emojis[state];
+  }
+
+  /**
+   * Tests if the given char is the first char of at least one emoji. This is
+   * a single bit test, cheap enough to skip the chars that can never start an
+   * emoji before walking the trie.
+   *
+   * @param c the char to test
+   *
+   * @return true if an emoji starts with this char, false otherwise
+   */
+  public boolean isFirstChar(char c) {
+    return (firstChars[c >>> 6] & (1L << c)) != 0;
+  }
+
+  /**
+   * Returns a new {@link Cursor} positioned at the root of the trie.
+   *
+   * @return a cursor that can walk the trie one char at a time
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  private int next(int state, char c) {
+    if (state == ROOT) {
+      int[] page = rootPages[c >>> 8];
+      int next = page == null ? 0 : page[c & 0xFF];
+      return next == 0 ? NO_STATE : next;
+    }
+    int edge = Arrays.binarySearch(
+      edgeChars, firstEdge[state], firstEdge[state + 1], c
+    );
+    return edge < 0 ? NO_STATE : edge + 1;
+  }
+
+  /**
+   * The sequences of chars under which an emoji is stored in the trie.
+   */
+  private enum Keys {
+    UNICODE {
+      List<char[]> of(Emoji emoji) {
+        return Collections.singletonList(emoji.getUnicode().toCharArray());
+      }
+    },
+    UTF8 {
+      List<char[]> of(Emoji emoji) {
+        return Collections.singletonList(getUtf8Chars(emoji.getUnicode()));
+      }
+    },
+    ALIASES {
+      List<char[]> of(Emoji emoji) {
+        List<char[]> keys = new ArrayList<char[]>();
+        for (String alias : emoji.getAliases()) {
+          keys.add(alias.toCharArray());
+        }
+        return keys;
+      }
+    };
+
+    abstract List<char[]> of(Emoji emoji);
   }
 
   public enum Matches {
@@ -111,32 +338,89 @@ public class EmojiTrie {
     }
   }
 
-  private class Node {
-    private Map<Character, Node> children = new HashMap<Character, Node>();
-    private Emoji emoji;
+  /**
+   * Walks the trie one char at a time, starting from the state reached by the
+   * previous calls instead of going back to the root for every lookup.<br>
+   * <br>
+   * A cursor holds mutable state and must not be shared between threads.
+   * Use {@link #reset()} to start looking for a new emoji.
+   */
+  public class Cursor {
+    private int state = ROOT;
 
-    private void setEmoji(Emoji emoji) {
-      this.emoji = emoji;
-    }
+    private Cursor() {}
 
-    private Emoji getEmoji() {
-      return emoji;
+    /**
+     * Moves the cursor back to the root of the trie.
+     *
+     * @return this cursor
+     */
+    public Cursor reset() {
+      state = ROOT;
+      return this;
     }
 
-    private boolean hasChild(char child) {
-      return children.containsKey(child);
+    /**
+     * Advances the cursor with the given char.
+     *
+     * @param c the next char of the sequence
+     *
+     * @return true if the chars consumed since the last reset are an emoji or
+     * the prefix of an emoji, false otherwise. Once false has been returned,
+     * the cursor stays in that state until it is reset.
+     */
+    public boolean next(char c) {
+      if (state == NO_STATE) {
+        return false;
+      }
+      state = EmojiTrie.this.next(state, c);
+      return state != NO_STATE;
     }
 
-    private void addChild(char child) {
-      children.put(child, new Node());
+    /**
+     * Returns the emoji matching exactly the chars consumed since the last
+     * reset.
+     *
+     * @return the Emoji instance, null if the chars are not an emoji
+     */
+    public Emoji getEmoji() {
+      return state == NO_STATE ? null : emojis[state];
     }
+  }
 
-    private Node getChild(char child) {
-      return children.get(child);
-    }
+  /**
+   * Node of the tree used while building the trie. The children are stored in
+   * a sorted char array, with the child nodes at the same indices in a
+   * parallel array.
+   */
+  private static class Node {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private Emoji emoji;
+
+    private Node getOrAddChild(char child) {
+      int index = Arrays.binarySearch(keys, child);
+      if (index >= 0) {
+        return children[index];
+      }
+      index = -index - 1;
 
-    private boolean isEndOfEmoji() {
-      return emoji != null;
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      newKeys[index] = child;
+      newChildren[index] = new Node();
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(
+        children, index, newChildren, index + 1, children.length - index
+      );
+      keys = newKeys;
+      children = newChildren;
+      return newChildren[index];
     }
   }
 }
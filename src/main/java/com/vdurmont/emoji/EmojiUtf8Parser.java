@@ -0,0 +1,225 @@
+package com.vdurmont.emoji;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides methods to find and remove the emojis directly in UTF-8 encoded
+ * bytes, without decoding them to a String first.<br>
+ * <br>
+ * The indices used by these methods are absolute indices in the byte array or
+ * in the ByteBuffer.
+ *
+ * @see EmojiParser
+ */
+public class EmojiUtf8Parser {
+  private static final EmojiTrie UTF8_TRIE =
+    EmojiTrie.utf8(EmojiManager.getAll());
+
+  // The fitzpatrick modifiers are U+1F3FB to U+1F3FF, which are encoded as
+  // F0 9F 8F BB to F0 9F 8F BF in UTF-8
+  private static final int FITZPATRICK_LENGTH = 4;
+  private static final int FITZPATRICK_FIRST_LAST_BYTE = 0xBB;
+  private static final Fitzpatrick[] FITZPATRICKS = Fitzpatrick.values();
+
+  /**
+   * No need for a constructor, all the methods are static.
+   */
+  private EmojiUtf8Parser() {}
+
+  /**
+   * Tests if the given UTF-8 bytes contain an emoji.
+   *
+   * @param utf8 the UTF-8 bytes to test
+   *
+   * @return true if the bytes contain an emoji, false otherwise
+   */
+  public static boolean containsEmoji(byte[] utf8) {
+    return containsEmoji(ByteBuffer.wrap(utf8));
+  }
+
+  /**
+   * Tests if the remaining bytes of the given UTF-8 buffer contain an emoji.
+   * The position of the buffer is not modified.
+   *
+   * @param utf8 the UTF-8 buffer to test
+   *
+   * @return true if the remaining bytes contain an emoji, false otherwise
+   */
+  public static boolean containsEmoji(ByteBuffer utf8) {
+    return getNextCandidate(utf8, utf8.position(), UTF8_TRIE.cursor()) != null;
+  }
+
+  /**
+   * Finds all the emojis in the given UTF-8 bytes.
+   *
+   * @param utf8 the UTF-8 bytes to search
+   *
+   * @return a ByteCandidate for each emoji, with its byte offsets
+   */
+  public static List<ByteCandidate> findEmojis(byte[] utf8) {
+    return findEmojis(ByteBuffer.wrap(utf8));
+  }
+
+  /**
+   * Finds all the emojis in the remaining bytes of the given UTF-8 buffer.
+   * The position of the buffer is not modified.
+   *
+   * @param utf8 the UTF-8 buffer to search
+   *
+   * @return a ByteCandidate for each emoji, with its byte offsets
+   */
+  public static List<ByteCandidate> findEmojis(ByteBuffer utf8) {
+    EmojiTrie.Cursor cursor = UTF8_TRIE.cursor();
+    List<ByteCandidate> candidates = new ArrayList<ByteCandidate>();
+    ByteCandidate next;
+    for (int i = utf8.position(); (next = getNextCandidate(utf8, i, cursor)) != null; i = next.getFitzpatrickEndIndex()) {
+      candidates.add(next);
+    }
+    return candidates;
+  }
+
+  /**
+   * Copies the remaining bytes of the input buffer to the output buffer,
+   * without the emojis.<br>
+   * The input buffer is entirely consumed and the position of the output
+   * buffer is advanced by the number of bytes written.
+   *
+   * @param in  the UTF-8 bytes to process
+   * @param out the buffer receiving the bytes without the emojis
+   *
+   * @throws java.nio.BufferOverflowException if the output buffer is too
+   * small
+   */
+  public static void removeAllEmojis(ByteBuffer in, ByteBuffer out) {
+    replaceAllEmojis(in, out, new byte[0]);
+  }
+
+  /**
+   * Copies the remaining bytes of the input buffer to the output buffer,
+   * replacing each emoji (and its fitzpatrick modifier, if any) by the given
+   * bytes.<br>
+   * The input buffer is entirely consumed and the position of the output
+   * buffer is advanced by the number of bytes written.
+   *
+   * @param in          the UTF-8 bytes to process
+   * @param out         the buffer receiving the transformed bytes
+   * @param replacement the UTF-8 bytes that will replace all the emojis
+   *
+   * @throws java.nio.BufferOverflowException if the output buffer is too
+   * small
+   */
+  public static void replaceAllEmojis(
+    ByteBuffer in,
+    ByteBuffer out,
+    byte[] replacement
+  ) {
+    EmojiTrie.Cursor cursor = UTF8_TRIE.cursor();
+    ByteBuffer source = in.duplicate();
+    int prev = in.position();
+    ByteCandidate next;
+    while ((next = getNextCandidate(in, prev, cursor)) != null) {
+      source.limit(next.getEmojiStartIndex()).position(prev);
+      out.put(source);
+      out.put(replacement);
+      prev = next.getFitzpatrickEndIndex();
+    }
+    source.limit(in.limit()).position(prev);
+    out.put(source);
+    in.position(in.limit());
+  }
+
+  private static ByteCandidate getNextCandidate(
+    ByteBuffer utf8,
+    int start,
+    EmojiTrie.Cursor cursor
+  ) {
+    int limit = utf8.limit();
+    for (int i = start; i < limit; i++) {
+      if (!UTF8_TRIE.isFirstChar(toChar(utf8.get(i)))) {
+        continue;
+      }
+
+      Emoji emoji = null;
+      int emojiEnd = -1;
+      cursor.reset();
+      for (int j = i; j < limit && cursor.next(toChar(utf8.get(j))); j++) {
+        if (cursor.getEmoji() != null) {
+          emoji = cursor.getEmoji();
+          emojiEnd = j + 1;
+        }
+      }
+
+      if (emoji != null) {
+        return new ByteCandidate(
+          emoji,
+          getFitzpatrickAt(utf8, emojiEnd),
+          i,
+          emojiEnd
+        );
+      }
+    }
+
+    return null;
+  }
+
+  private static Fitzpatrick getFitzpatrickAt(ByteBuffer utf8, int index) {
+    if (index + FITZPATRICK_LENGTH > utf8.limit() ||
+      utf8.get(index) != (byte) 0xF0 ||
+      utf8.get(index + 1) != (byte) 0x9F ||
+      utf8.get(index + 2) != (byte) 0x8F) {
+      return null;
+    }
+    int type = (utf8.get(index + 3) & 0xFF) - FITZPATRICK_FIRST_LAST_BYTE;
+    return type >= 0 && type < FITZPATRICKS.length ? FITZPATRICKS[type] : null;
+  }
+
+  private static char toChar(byte b) {
+    return (char) (b & 0xFF);
+  }
+
+
+  public static class ByteCandidate {
+    private final Emoji emoji;
+    private final Fitzpatrick fitzpatrick;
+    private final int startIndex;
+    private final int endIndex;
+
+    private ByteCandidate(
+      Emoji emoji,
+      Fitzpatrick fitzpatrick,
+      int startIndex,
+      int endIndex
+    ) {
+      this.emoji = emoji;
+      this.fitzpatrick = fitzpatrick;
+      this.startIndex = startIndex;
+      this.endIndex = endIndex;
+    }
+
+    public Emoji getEmoji() {
+      return emoji;
+    }
+
+    public boolean hasFitzpatrick() {
+      return getFitzpatrick() != null;
+    }
+
+    public Fitzpatrick getFitzpatrick() {
+      return fitzpatrick;
+    }
+
+    public int getEmojiStartIndex() {
+      return startIndex;
+    }
+
+    public int getEmojiEndIndex() {
+      return endIndex;
+    }
+
+    public int getFitzpatrickEndIndex() {
+      return endIndex + (fitzpatrick != null ? FITZPATRICK_LENGTH : 0);
+    }
+  }
+}
@@ -34,8 +34,15 @@ public enum Fitzpatrick {
    */
   public final String unicode;
 
+  /**
+   * The type of the Fitzpatrick modifier used in the aliases, "type_1_2" for
+   * example
+   */
+  final String type;
+
   Fitzpatrick(String unicode) {
     this.unicode = unicode;
+    this.type = name().toLowerCase();
   }
 
 
@@ -49,10 +56,11 @@ public enum Fitzpatrick {
   }
 
   public static Fitzpatrick fitzpatrickFromType(String type) {
-    try {
-      return Fitzpatrick.valueOf(type.toUpperCase());
-    } catch (IllegalArgumentException e) {
-      return null;
+    for (Fitzpatrick v : values()) {
+      if (v.type.equalsIgnoreCase(type)) {
+        return v;
+      }
     }
+    return null;
   }
 }
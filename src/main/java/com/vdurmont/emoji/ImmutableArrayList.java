@@ -0,0 +1,73 @@
+package com.vdurmont.emoji;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable List backed by an array of the exact size of its
+ * elements.<br>
+ * <br>
+ * It replaces the ArrayList wrapped in an unmodifiable view held by each
+ * emoji: a single object around the array instead of three, and no spare
+ * capacity. Since it cannot be modified after its creation, it can be shared
+ * between threads without synchronization.
+ *
+ * @param <E> the type of the elements
+ */
+final class ImmutableArrayList<E> extends AbstractList<E>
+  implements RandomAccess {
+  private static final ImmutableArrayList<Object> EMPTY =
+    new ImmutableArrayList<Object>(new Object[0]);
+
+  private final Object[] elements;
+
+  private ImmutableArrayList(Object[] elements) {
+    this.elements = elements;
+  }
+
+  /**
+   * Returns an unmodifiable copy of the given elements. The empty lists are
+   * all the same instance.
+   *
+   * @param elements the elements to copy
+   * @param <E>      the type of the elements
+   *
+   * @return the copy
+   */
+  @SuppressWarnings("unchecked")
+  static <E> ImmutableArrayList<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof ImmutableArrayList) {
+      return (ImmutableArrayList<E>) elements;
+    }
+    return wrap(elements.toArray());
+  }
+
+  /**
+   * Returns a list backed by the given array, that must not be modified
+   * afterwards.
+   *
+   * @param elements the elements of the list
+   * @param <E>      the type of the elements
+   *
+   * @return the list
+   */
+  @SuppressWarnings("unchecked")
+  static <E> ImmutableArrayList<E> wrap(Object[] elements) {
+    if (elements.length == 0) {
+      return (ImmutableArrayList<E>) EMPTY;
+    }
+    return new ImmutableArrayList<E>(elements);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    return (E) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+}
@@ -0,0 +1,171 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiDatabaseTest {
+  @Test
+  public void snapshot_restores_the_database() throws IOException {
+    // GIVEN
+    EmojiDatabase expected = loadJsonDatabase();
+    Snapshot snapshot = new Snapshot(expected);
+
+    // WHEN
+    EmojiDatabase database = snapshot.read();
+
+    // THEN
+    assertNotNull(database);
+    assertEquals(
+      expected.emojisByOrdinal.length,
+      database.emojisByOrdinal.length
+    );
+    for (int i = 0; i < database.emojisByOrdinal.length; i++) {
+      Emoji emoji = database.emojisByOrdinal[i];
+      Emoji expectedEmoji = expected.emojisByOrdinal[i];
+      assertEquals(i, emoji.ordinal());
+      assertEquals(expectedEmoji.getUnicode(), emoji.getUnicode());
+      assertEquals(expectedEmoji.getDescription(), emoji.getDescription());
+      assertEquals(
+        expectedEmoji.supportsFitzpatrick(),
+        emoji.supportsFitzpatrick()
+      );
+      assertEquals(expectedEmoji.getAliases(), emoji.getAliases());
+      assertEquals(expectedEmoji.getTags(), emoji.getTags());
+    }
+    for (int i = 0; i < database.emojisByLength.size(); i++) {
+      assertEquals(
+        expected.emojisByLength.get(i).ordinal(),
+        database.emojisByLength.get(i).ordinal()
+      );
+    }
+    Map<String, int[]> expectedTags = expected.getOrdinalsByTag();
+    Map<String, int[]> ordinalsByTag = database.getOrdinalsByTag();
+    assertEquals(expectedTags.size(), ordinalsByTag.size());
+    for (Map.Entry<String, int[]> tag : expectedTags.entrySet()) {
+      assertArrayEquals(tag.getValue(), ordinalsByTag.get(tag.getKey()));
+    }
+  }
+
+  @Test
+  public void snapshot_restores_the_tries() throws IOException {
+    // GIVEN
+    Snapshot snapshot = new Snapshot(loadJsonDatabase());
+
+    // WHEN
+    EmojiDatabase database = snapshot.read();
+
+    // THEN
+    for (Emoji emoji : database.emojisByOrdinal) {
+      assertSame(emoji, database.emojiTrie.getEmoji(emoji.getUnicode()));
+      EmojiTrie.Cursor cursor = database.aliasTrie.cursor();
+      String alias = emoji.getAliases().get(0);
+      for (int i = 0; i < alias.length(); i++) {
+        cursor.next(alias.charAt(i));
+      }
+      assertNotNull(cursor.getEmoji());
+      assertEquals(alias, cursor.getEmoji().getAliases().get(0));
+    }
+    assertEquals(
+      EmojiManager.EMOJI_TRIE.maxDepth,
+      database.emojiTrie.maxDepth
+    );
+    assertEquals(
+      EmojiManager.ALIAS_TRIE.maxDepth,
+      database.aliasTrie.maxDepth
+    );
+  }
+
+  @Test
+  public void snapshot_loads_the_metadata_on_first_use() throws IOException {
+    // GIVEN
+    EmojiDatabase database = new Snapshot(loadJsonDatabase()).read();
+    Emoji smile = database.emojiTrie.getEmoji("😄");
+
+    // WHEN
+    boolean loadedAtStartup = database.isMetadataLoaded();
+    String description = smile.getDescription();
+
+    // THEN
+    assertFalse(loadedAtStartup);
+    assertTrue(database.isMetadataLoaded());
+    assertEquals("smiling face with open mouth and smiling eyes", description);
+  }
+
+  @Test
+  public void snapshot_loads_the_metadata_for_the_tags() throws IOException {
+    // GIVEN
+    EmojiDatabase database = new Snapshot(loadJsonDatabase()).read();
+
+    // WHEN
+    Map<String, int[]> ordinalsByTag = database.getOrdinalsByTag();
+
+    // THEN
+    assertTrue(database.isMetadataLoaded());
+    assertEquals(EmojiManager.getAllTags().size(), ordinalsByTag.size());
+  }
+
+  @Test
+  public void read_a_snapshot_of_another_format_returns_null()
+    throws IOException {
+    // GIVEN
+    InputStream snapshot = new ByteArrayInputStream(
+      new byte[] {0, 0, 0, 1, 0, 0, 0, 1}
+    );
+
+    // WHEN
+    EmojiDatabase database = EmojiDatabase.read(snapshot, null);
+
+    // THEN
+    assertNull(database);
+  }
+
+  private static EmojiDatabase loadJsonDatabase() throws IOException {
+    InputStream json =
+      EmojiDatabaseTest.class.getResourceAsStream(EmojiDatabase.JSON_PATH);
+    return EmojiDatabase.fromEmojis(EmojiLoader.loadEmojis(json));
+  }
+
+  /**
+   * The shards of the snapshot of a database, in memory.
+   */
+  private static class Snapshot {
+    private final byte[] core;
+    private final byte[] metadata;
+
+    private Snapshot(EmojiDatabase database) throws IOException {
+      ByteArrayOutputStream core = new ByteArrayOutputStream();
+      ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+      database.write(core, metadata);
+      this.core = core.toByteArray();
+      this.metadata = metadata.toByteArray();
+    }
+
+    private EmojiDatabase read() throws IOException {
+      return EmojiDatabase.read(
+        new ByteArrayInputStream(core),
+        new EmojiDatabase.Shard() {
+          public ByteBuffer open() {
+            return ByteBuffer.wrap(metadata);
+          }
+        }
+      );
+    }
+  }
+}
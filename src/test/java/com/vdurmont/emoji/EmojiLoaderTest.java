@@ -7,15 +7,18 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(JUnit4.class)
@@ -33,6 +36,165 @@ public class EmojiLoaderTest {
     assertEquals(0, emojis.size());
   }
 
+  @Test
+  public void load_reads_the_fields_of_the_emojis() throws IOException {
+    // GIVEN
+    InputStream stream = toStream("[{"
+      + "\"emojiChar\": \"\uD83D\uDC66\","
+      + "\"emoji\": \"\\uD83D\\uDC66\","
+      + "\"description\": \"boy\","
+      + "\"supports_fitzpatrick\": true,"
+      + "\"aliases\": [\"boy\"],"
+      + "\"tags\": [\"child\", \"kid\"]"
+      + "}, {"
+      + "\"emoji\": \"😄\","
+      + "\"description\": \"smile\",\n"
+      + "\"aliases\": [\"smile\"],\n"
+      + "\"tags\": []"
+      + "}]");
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    assertEquals(2, emojis.size());
+    Emoji boy = emojis.get(0);
+    assertEquals("\uD83D\uDC66", boy.getUnicode());
+    assertEquals("boy", boy.getDescription());
+    assertTrue(boy.supportsFitzpatrick());
+    assertEquals(Arrays.asList("boy"), boy.getAliases());
+    assertEquals(Arrays.asList("child", "kid"), boy.getTags());
+    Emoji smile = emojis.get(1);
+    assertEquals("😄", smile.getUnicode());
+    assertFalse(smile.supportsFitzpatrick());
+    assertEquals("&#128516;", smile.getHtmlDecimal());
+    assertEquals(0, smile.getTags().size());
+  }
+
+  @Test
+  public void load_shares_the_tags_between_the_emojis() throws IOException {
+    // GIVEN
+    InputStream stream = toStream("["
+      + "{\"emoji\": \"\uD83D\uDC66\", \"tags\": [\"child\"]},"
+      + "{\"emoji\": \"\uD83D\uDC67\", \"tags\": [\"child\"]}"
+      + "]");
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    assertEquals("child", emojis.get(0).getTags().get(0));
+    assertSame(emojis.get(0).getTags().get(0), emojis.get(1).getTags().get(0));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void the_tags_of_a_loaded_emoji_are_unmodifiable()
+    throws IOException {
+    // GIVEN
+    InputStream stream = toStream(
+      "[{\"emoji\": \"\uD83D\uDC66\", \"tags\": [\"child\"]}]"
+    );
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // WHEN
+    emojis.get(0).getTags().add("kid");
+
+    // THEN
+    // An exception is thrown
+  }
+
+  @Test
+  public void load_decodes_the_escapes() throws IOException {
+    // GIVEN
+    InputStream stream = toStream("[{"
+      + "\"emoji\": \"\\u2764\","
+      + "\"description\": \"a \\\"heart\\\"\\\\\\/\\t\\u00e9\","
+      + "\"aliases\": [\"heart\"],"
+      + "\"tags\": [\"love\"]"
+      + "}]");
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    assertEquals(1, emojis.size());
+    assertEquals("\u2764", emojis.get(0).getUnicode());
+    assertEquals("a \"heart\"\\/\t\u00e9", emojis.get(0).getDescription());
+  }
+
+  @Test
+  public void load_skips_the_unknown_fields() throws IOException {
+    // GIVEN
+    InputStream stream = toStream("[{"
+      + "\"supports_gender\": true,"
+      + "\"version\": -1.5e3,"
+      + "\"extra\": {\"a\": [1, null, {\"b\": \"]}\"}], \"c\": false},"
+      + "\"emoji\": \"😄\","
+      + "\"aliases\": [\"smile\"],"
+      + "\"tags\": [\"happy\"]"
+      + "}]");
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    assertEquals(1, emojis.size());
+    assertEquals("😄", emojis.get(0).getUnicode());
+    assertNull(emojis.get(0).getDescription());
+  }
+
+  @Test
+  public void load_ignores_the_objects_without_unicode() throws IOException {
+    // GIVEN
+    InputStream stream = toStream("[{}, {"
+      + "\"aliases\": [\"smile\"],"
+      + "\"tags\": [\"happy\"]"
+      + "}]");
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    assertEquals(0, emojis.size());
+  }
+
+  @Test(expected = IOException.class)
+  public void load_with_a_truncated_database_throws_an_IOException()
+    throws IOException {
+    // GIVEN
+    InputStream stream = toStream("[{\"emoji\": \"😄\", \"aliases\": [");
+
+    // WHEN
+    EmojiLoader.loadEmojis(stream);
+
+    // THEN
+    // An IOException is thrown
+  }
+
+  @Test
+  public void load_builds_the_same_emojis_as_buildEmojiFromJSON()
+    throws IOException {
+    // GIVEN
+    JSONArray json = new JSONArray(readDatabase());
+
+    // WHEN
+    List<Emoji> emojis = EmojiLoader.loadEmojis(
+      EmojiLoaderTest.class.getResourceAsStream("/emojis.json")
+    );
+
+    // THEN
+    assertEquals(json.length(), emojis.size());
+    for (int i = 0; i < json.length(); i++) {
+      Emoji expected = EmojiLoader.buildEmojiFromJSON(json.getJSONObject(i));
+      Emoji emoji = emojis.get(i);
+      assertEquals(expected.getUnicode(), emoji.getUnicode());
+      assertEquals(expected.getDescription(), emoji.getDescription());
+      assertEquals(expected.supportsFitzpatrick(), emoji.supportsFitzpatrick());
+      assertEquals(expected.getAliases(), emoji.getAliases());
+      assertEquals(expected.getTags(), emoji.getTags());
+    }
+  }
+
   @Test
   public void buildEmojiFromJSON() throws UnsupportedEncodingException {
     // GIVEN
@@ -174,4 +336,22 @@ public class EmojiLoaderTest {
     assertNotNull(emoji);
     assertFalse(emoji.supportsFitzpatrick());
   }
+
+  private static InputStream toStream(String json)
+    throws UnsupportedEncodingException {
+    return new ByteArrayInputStream(json.getBytes("UTF-8"));
+  }
+
+  private static String readDatabase() throws IOException {
+    InputStream stream =
+      EmojiLoaderTest.class.getResourceAsStream("/emojis.json");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    stream.close();
+    return bytes.toString("UTF-8");
+  }
 }
@@ -4,8 +4,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -56,6 +62,18 @@ public class EmojiManagerTest {
     assertTrue(TestTools.containsEmojis(emojis, "eu"));
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void getForTag_returns_an_unmodifiable_set() {
+    // GIVEN
+    Set<Emoji> emojis = EmojiManager.getForTag("happy");
+
+    // WHEN
+    emojis.clear();
+
+    // THEN
+    // An exception is thrown
+  }
+
   @Test
   public void getForAlias_with_unknown_alias_returns_null() {
     // GIVEN
@@ -67,6 +85,215 @@ public class EmojiManagerTest {
     assertNull(emoji);
   }
 
+  @Test
+  public void getForAliasPrefix_returns_the_emojis_in_alias_order() {
+    // GIVEN
+    List<Emoji> expected = new ArrayList<Emoji>();
+    List<String> aliases = new ArrayList<String>();
+    for (Emoji emoji : EmojiManager.getAll()) {
+      for (String alias : emoji.getAliases()) {
+        if (alias.startsWith("smi")) {
+          aliases.add(alias);
+        }
+      }
+    }
+    Collections.sort(aliases);
+    for (String alias : aliases) {
+      Emoji emoji = EmojiManager.getForAlias(alias);
+      if (!expected.contains(emoji)) {
+        expected.add(emoji);
+      }
+    }
+
+    // WHEN
+    List<Emoji> all = EmojiManager.getForAliasPrefix(":smi", 1000);
+    List<Emoji> three = EmojiManager.getForAliasPrefix("smi", 3);
+
+    // THEN
+    assertEquals(expected, all);
+    assertEquals(expected.subList(0, 3), three);
+  }
+
+  @Test
+  public void getForAliasPrefix_with_a_ranking() {
+    // GIVEN
+    final Emoji smirk = EmojiManager.getForAlias("smirk");
+    final Emoji smiley = EmojiManager.getForAlias("smiley");
+    Comparator<Emoji> ranking = new Comparator<Emoji>() {
+      public int compare(Emoji e1, Emoji e2) {
+        return score(e2) - score(e1);
+      }
+
+      private int score(Emoji emoji) {
+        return emoji == smirk ? 2 : emoji == smiley ? 1 : 0;
+      }
+    };
+
+    // WHEN
+    List<Emoji> result = EmojiManager.getForAliasPrefix("smi", 3, ranking);
+
+    // THEN
+    assertEquals(3, result.size());
+    assertEquals(smirk, result.get(0));
+    assertEquals(smiley, result.get(1));
+    assertEquals(EmojiManager.getForAliasPrefix("smi", 1).get(0), result.get(2));
+  }
+
+  @Test
+  public void getForAliasPrefix_with_an_unknown_prefix_returns_nothing() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> result = EmojiManager.getForAliasPrefix("jkahsgdfjk", 10);
+
+    // THEN
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  public void getForAliasPrefix_with_a_negative_or_zero_limit() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> negative = EmojiManager.getForAliasPrefix("smi", -1);
+    List<Emoji> zero = EmojiManager.getForAliasPrefix("smi", 0);
+
+    // THEN
+    assertTrue(negative.isEmpty());
+    assertTrue(zero.isEmpty());
+  }
+
+  @Test
+  public void getForAliasFuzzy_finds_the_misspelled_aliases() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> simle = EmojiManager.getForAliasFuzzy(":simle:", 2);
+    List<Emoji> thumbsUp = EmojiManager.getForAliasFuzzy("thumbs_up", 1);
+    List<Emoji> exact = EmojiManager.getForAliasFuzzy("smile", 0);
+
+    // THEN
+    assertTrue(simle.contains(EmojiManager.getForAlias("smile")));
+    assertEquals(EmojiManager.getForAlias("thumbsup"), thumbsUp.get(0));
+    assertEquals(1, exact.size());
+    assertEquals(EmojiManager.getForAlias("smile"), exact.get(0));
+  }
+
+  @Test
+  public void getForAliasFuzzy_with_only_colons_returns_nothing() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> colon = EmojiManager.getForAliasFuzzy(":", 1);
+    List<Emoji> colons = EmojiManager.getForAliasFuzzy("::", 1);
+
+    // THEN
+    assertTrue(colon.isEmpty());
+    assertTrue(colons.isEmpty());
+  }
+
+  @Test
+  public void getForAliasFuzzy_gives_the_same_result_as_a_linear_scan() {
+    // GIVEN
+    String alias = "smiel";
+    Set<Emoji> expected = new HashSet<Emoji>();
+    for (Emoji emoji : EmojiManager.getAll()) {
+      for (String candidate : emoji.getAliases()) {
+        if (levenshtein(alias, candidate) <= 2) {
+          expected.add(EmojiManager.getForAlias(candidate));
+        }
+      }
+    }
+
+    // WHEN
+    List<Emoji> result = EmojiManager.getForAliasFuzzy(alias, 2);
+
+    // THEN
+    assertEquals(expected, new HashSet<Emoji>(result));
+    assertEquals(expected.size(), result.size());
+  }
+
+  private static int levenshtein(String s1, String s2) {
+    int[][] d = new int[s1.length() + 1][s2.length() + 1];
+    for (int i = 0; i <= s1.length(); i++) {
+      for (int j = 0; j <= s2.length(); j++) {
+        if (i == 0 || j == 0) {
+          d[i][j] = i + j;
+        } else {
+          int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+          d[i][j] = Math.min(
+            d[i - 1][j - 1] + cost,
+            Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1)
+          );
+        }
+      }
+    }
+    return d[s1.length()][s2.length()];
+  }
+
+  @Test
+  public void search_ranks_the_emojis_matching_all_the_words_first() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> heartEyes = EmojiManager.search("Heart EYES", 5);
+    List<Emoji> catFace = EmojiManager.search("cat face", 10);
+
+    // THEN
+    assertEquals(EmojiManager.getForAlias("heart_eyes"), heartEyes.get(0));
+    assertEquals(5, heartEyes.size());
+    for (Emoji emoji : catFace) {
+      assertTrue(
+        emoji.getDescription(),
+        emoji.getDescription().contains("cat face")
+      );
+    }
+  }
+
+  @Test
+  public void search_ranks_a_whole_alias_before_the_longer_aliases() {
+    // GIVEN
+    Emoji heart = EmojiManager.getForAlias("heart");
+
+    // WHEN
+    List<Emoji> single = EmojiManager.search("heart", 1);
+    List<Emoji> redHeart = EmojiManager.search("red heart", 10);
+
+    // THEN
+    assertEquals(1, single.size());
+    assertEquals(heart, single.get(0));
+    assertEquals(heart, redHeart.get(0));
+  }
+
+  @Test
+  public void search_does_not_depend_on_the_default_locale() {
+    // GIVEN
+    Locale locale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+
+    // WHEN
+    List<Emoji> result;
+    try {
+      result = EmojiManager.search("SMILE", 1);
+    } finally {
+      Locale.setDefault(locale);
+    }
+
+    // THEN
+    assertEquals(EmojiManager.getForAlias("smile"), result.get(0));
+  }
+
+  @Test
+  public void search_with_unknown_words_returns_nothing() {
+    // GIVEN
+
+    // WHEN
+    List<Emoji> result = EmojiManager.search("jkahsgdfjk !!", 10);
+
+    // THEN
+    assertTrue(result.isEmpty());
+  }
+
   @Test
   public void getForAlias_returns_the_emoji_for_the_alias() {
     // GIVEN
@@ -179,6 +406,30 @@ public class EmojiManagerTest {
     assertTrue(containsEmoji);
   }
 
+  @Test
+  public void containsEmoji_with_a_StringBuilder_returns_true() {
+    // GIVEN
+    StringBuilder str = new StringBuilder("test ").append("😀");
+
+    // WHEN
+    boolean containsEmoji = EmojiManager.containsEmoji(str);
+
+    // THEN
+    assertTrue(containsEmoji);
+  }
+
+  @Test
+  public void isEmoji_with_a_CharBuffer_returns_true() {
+    // GIVEN
+    CharBuffer str = CharBuffer.wrap("test 😀 test").subSequence(5, 7);
+
+    // WHEN
+    boolean isEmoji = EmojiManager.isEmoji(str);
+
+    // THEN
+    assertTrue(isEmoji);
+  }
+
   @Test
   public void isOnlyEmojis_for_an_emoji_returns_true() {
     // GIVEN
@@ -215,6 +466,30 @@ public class EmojiManagerTest {
     assertFalse(isEmoji);
   }
 
+  @Test
+  public void isOnlyEmojis_for_emojis_with_fitzpatrick_returns_true() {
+    // GIVEN
+    StringBuilder str = new StringBuilder("👦🏿😀");
+
+    // WHEN
+    boolean isEmoji = EmojiManager.isOnlyEmojis(str);
+
+    // THEN
+    assertTrue(isEmoji);
+  }
+
+  @Test
+  public void isOnlyEmojis_for_a_string_starting_with_text_returns_false() {
+    // GIVEN
+    String str = "a😀";
+
+    // WHEN
+    boolean isEmoji = EmojiManager.isOnlyEmojis(str);
+
+    // THEN
+    assertFalse(isEmoji);
+  }
+
   @Test
   public void getAllTags_returns_the_tags() {
     // GIVEN
@@ -227,6 +502,30 @@ public class EmojiManagerTest {
     assertEquals(656, tags.size());
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void getAllTags_returns_an_unmodifiable_collection() {
+    // GIVEN
+    Collection<String> tags = EmojiManager.getAllTags();
+
+    // WHEN
+    tags.remove("happy");
+
+    // THEN
+    // An exception is thrown
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getAll_returns_an_unmodifiable_collection() {
+    // GIVEN
+    Collection<Emoji> emojis = EmojiManager.getAll();
+
+    // WHEN
+    emojis.clear();
+
+    // THEN
+    // An exception is thrown
+  }
+
   @Test
   public void getAll_doesnt_return_duplicates() {
     // GIVEN
@@ -0,0 +1,105 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiMapTest {
+  private static final Emoji SMILE = EmojiManager.getForAlias("smile");
+  private static final Emoji BOY = EmojiManager.getForAlias("boy");
+
+  @Test
+  public void put_get_and_remove() {
+    // GIVEN
+    EmojiMap<String> map = new EmojiMap<String>();
+
+    // WHEN
+    String first = map.put(SMILE, "a");
+    String second = map.put(SMILE, "b");
+    map.put(BOY, null);
+
+    // THEN
+    assertNull(first);
+    assertEquals("a", second);
+    assertEquals(2, map.size());
+    assertEquals("b", map.get(SMILE));
+    assertNull(map.get(BOY));
+    assertTrue(map.containsKey(BOY));
+    assertFalse(map.containsKey("boy"));
+    assertNull(map.remove(BOY));
+    assertFalse(map.containsKey(BOY));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void equals_a_HashMap_with_the_same_mappings() {
+    // GIVEN
+    Map<Emoji, Integer> expected = new HashMap<Emoji, Integer>();
+    expected.put(SMILE, 1);
+    expected.put(BOY, 2);
+
+    // WHEN
+    EmojiMap<Integer> map = new EmojiMap<Integer>(expected);
+
+    // THEN
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+  }
+
+  @Test
+  public void entrySet_writes_through_the_map() {
+    // GIVEN
+    EmojiMap<Integer> map = new EmojiMap<Integer>();
+    map.put(SMILE, 1);
+    map.put(BOY, 2);
+
+    // WHEN
+    for (Iterator<Map.Entry<Emoji, Integer>> it = map.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<Emoji, Integer> entry = it.next();
+      if (entry.getKey().equals(SMILE)) {
+        entry.setValue(10);
+      } else {
+        it.remove();
+      }
+    }
+
+    // THEN
+    assertEquals(1, map.size());
+    assertEquals(Integer.valueOf(10), map.get(SMILE));
+    assertFalse(map.containsKey(BOY));
+  }
+
+  @Test
+  public void setValue_on_a_removed_entry_throws_an_exception() {
+    // GIVEN
+    EmojiMap<String> map = new EmojiMap<String>();
+    map.put(SMILE, "x");
+    Iterator<Map.Entry<Emoji, String>> it = map.entrySet().iterator();
+    Map.Entry<Emoji, String> entry = it.next();
+    it.remove();
+
+    // WHEN
+    boolean thrown = false;
+    try {
+      entry.setValue("y");
+    } catch (IllegalStateException e) {
+      thrown = true;
+    }
+
+    // THEN
+    assertTrue(thrown);
+    assertTrue(map.isEmpty());
+    assertNull(map.get(SMILE));
+  }
+}
@@ -0,0 +1,120 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiMatcherTest {
+  @Test
+  public void find_iterates_over_the_emojis() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("An 😀awesome 👦🏿string");
+
+    // WHEN
+    boolean first = matcher.find();
+    Emoji firstEmoji = matcher.emoji();
+    int firstStart = matcher.start();
+    int firstEnd = matcher.end();
+    Fitzpatrick firstFitzpatrick = matcher.fitzpatrick();
+    boolean second = matcher.find();
+
+    // THEN
+    assertTrue(first);
+    assertEquals(EmojiManager.getForAlias("grinning"), firstEmoji);
+    assertEquals(3, firstStart);
+    assertEquals(5, firstEnd);
+    assertNull(firstFitzpatrick);
+
+    assertTrue(second);
+    assertEquals(EmojiManager.getForAlias("boy"), matcher.emoji());
+    assertEquals(13, matcher.start());
+    assertEquals(15, matcher.emojiEnd());
+    assertEquals(17, matcher.end());
+    assertEquals(Fitzpatrick.TYPE_6, matcher.fitzpatrick());
+
+    assertFalse(matcher.find());
+  }
+
+  @Test
+  public void hasMatch_follows_the_result_of_find() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("An 😀awesome string");
+
+    // WHEN
+    boolean before = matcher.hasMatch();
+    matcher.find();
+    boolean afterFirst = matcher.hasMatch();
+    matcher.find();
+    boolean afterLast = matcher.hasMatch();
+
+    // THEN
+    assertFalse(before);
+    assertTrue(afterFirst);
+    assertFalse(afterLast);
+  }
+
+  @Test
+  public void find_returns_the_longest_emoji() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("👨‍👩‍👦");
+
+    // WHEN
+    boolean found = matcher.find();
+
+    // THEN
+    assertTrue(found);
+    assertEquals(
+      EmojiManager.getForAlias("family_man_woman_boy"),
+      matcher.emoji()
+    );
+    assertEquals(8, matcher.end());
+  }
+
+  @Test
+  public void reset_reuses_the_matcher_for_another_input() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("😀");
+    matcher.find();
+
+    // WHEN
+    matcher.reset(new StringBuilder("no emoji"));
+
+    // THEN
+    assertFalse(matcher.find());
+    matcher.reset("😉");
+    assertTrue(matcher.find());
+    assertEquals(EmojiManager.getForAlias("wink"), matcher.emoji());
+  }
+
+  @Test
+  public void find_with_a_start_index_skips_the_previous_emojis() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("😀 😉");
+
+    // WHEN
+    boolean found = matcher.find(1);
+
+    // THEN
+    assertTrue(found);
+    assertEquals(EmojiManager.getForAlias("wink"), matcher.emoji());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void emoji_without_a_match_throws_an_exception() {
+    // GIVEN
+    EmojiMatcher matcher = new EmojiMatcher("test");
+    matcher.find();
+
+    // WHEN
+    matcher.emoji();
+
+    // THEN
+    // Exception
+  }
+}
@@ -1,16 +1,25 @@
 package com.vdurmont.emoji;
 
 import com.vdurmont.emoji.EmojiParser.AliasCandidate;
+import com.vdurmont.emoji.EmojiParser.EmojiAppender;
 import com.vdurmont.emoji.EmojiParser.FitzpatrickAction;
+import com.vdurmont.emoji.EmojiParser.Representation;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(JUnit4.class)
@@ -403,6 +412,176 @@ public class EmojiParserTest {
     assertEquals(Fitzpatrick.TYPE_3, candidate.fitzpatrick);
   }
 
+  @Test
+  public void getAliasAt_with_an_unknown_fitzpatrick_type() {
+    // GIVEN
+    String str = "test :boy|TYPE_3: :boy|junk: test";
+
+    // WHEN
+    AliasCandidate upperCase = EmojiParser.getAliasAt(str, 5);
+    AliasCandidate junk = EmojiParser.getAliasAt(str, 18);
+
+    // THEN
+    assertEquals(Fitzpatrick.TYPE_3, upperCase.fitzpatrick);
+    assertEquals(16, upperCase.endIndex);
+    assertTrue(junk.emoji.getAliases().contains("boy"));
+    assertNull(junk.fitzpatrick);
+    assertEquals(27, junk.endIndex);
+  }
+
+  @Test
+  public void getAliasAt_with_a_fitzpatrick_type_on_an_unsupported_emoji() {
+    // GIVEN
+    String str = "test :smile|type_3: test";
+
+    // WHEN
+    AliasCandidate candidate = EmojiParser.getAliasAt(str, 5);
+
+    // THEN
+    assertNull(candidate);
+  }
+
+  @Test
+  public void getAliasAt_with_an_unknown_or_unclosed_alias() {
+    // WHEN
+    // THEN
+    assertNull(EmojiParser.getAliasAt("::smile:", 0));
+    assertNull(EmojiParser.getAliasAt(":smil:", 0));
+    assertNull(EmojiParser.getAliasAt(":smiley_cat_:", 0));
+    assertNull(EmojiParser.getAliasAt(":smile", 0));
+    assertNull(EmojiParser.getAliasAt(":boy|type_3", 0));
+  }
+
+  @Test
+  public void the_char_array_helpers_find_the_emojis() {
+    // GIVEN
+    char[] chars = "An \uD83D\uDE04awesome \uD83D\uDC66\uD83C\uDFFFboy"
+      .toCharArray();
+
+    // WHEN
+    int end = EmojiParser.getEmojiEndPos(chars, 3);
+    EmojiParser.UnicodeCandidate candidate =
+      EmojiParser.getNextUnicodeCandidate(chars, 5);
+
+    // THEN
+    assertEquals(5, end);
+    assertEquals(-1, EmojiParser.getEmojiEndPos(chars, 0));
+    assertEquals("boy", candidate.getEmoji().getAliases().get(0));
+    assertEquals(Fitzpatrick.TYPE_6, candidate.getFitzpatrick());
+    assertEquals(13, candidate.getEmojiStartIndex());
+  }
+
+  @Test
+  public void parseToUnicode_with_many_colons() {
+    // GIVEN
+    String str = "12:30:45 {\"a\":\"b\"} http://x.y :+1: :-1::smile:";
+
+    // WHEN
+    String result = EmojiParser.parseToUnicode(str);
+
+    // THEN
+    assertEquals(
+      "12:30:45 {\"a\":\"b\"} http://x.y \uD83D\uDC4D \uD83D\uDC4E\uD83D\uDE04",
+      result
+    );
+  }
+
+  @Test
+  public void getHtmlEncodedEmojiAt_with_a_sequence_of_code_points() {
+    // GIVEN
+    String str = "a &#128104;&#x200d;&#128105;&#8205;&#x1f466;&#x1f466; b";
+
+    // WHEN
+    AliasCandidate candidate = EmojiParser.getHtmlEncodedEmojiAt(str, 2);
+
+    // THEN
+    assertEquals("\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC66", candidate.emoji.getUnicode());
+    assertEquals(2, candidate.startIndex);
+    assertEquals(43, candidate.endIndex);
+  }
+
+  @Test
+  public void getHtmlEncodedEmojiAt_with_malformed_entities() {
+    // WHEN
+    // THEN
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#;", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#x;", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#128516", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#12a516;", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#99999999999999999999;", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#xffffffff1f604;", 0));
+    assertNull(EmojiParser.getHtmlEncodedEmojiAt("&#-128516;", 0));
+    assertEquals(
+      "\uD83D\uDE04",
+      EmojiParser.getHtmlEncodedEmojiAt("&#128516;&#x;", 0).emoji.getUnicode()
+    );
+  }
+
+  @Test
+  public void normalize_recognizes_every_representation_in_one_pass() {
+    // GIVEN
+    String str = ":smile: &#128516; &#x1f604; \uD83D\uDE04 " +
+      ":boy|type_6: \uD83D\uDC66\uD83C\uDFFF :boy:\uD83C\uDFFF";
+
+    // WHEN
+    String aliases = EmojiParser.normalize(str, Representation.ALIAS);
+    String unicode = EmojiParser.normalize(str, Representation.UNICODE);
+    String decimal = EmojiParser.normalize(str, Representation.HTML_DECIMAL);
+    String hexadecimal = EmojiParser.normalize(
+      str,
+      Representation.HTML_HEXADECIMAL,
+      FitzpatrickAction.REMOVE
+    );
+
+    // THEN
+    assertEquals(
+      ":smile: :smile: :smile: :smile: :boy|type_6: :boy|type_6: :boy|type_6:",
+      aliases
+    );
+    assertEquals(
+      "\uD83D\uDE04 \uD83D\uDE04 \uD83D\uDE04 \uD83D\uDE04 " +
+        "\uD83D\uDC66\uD83C\uDFFF \uD83D\uDC66\uD83C\uDFFF " +
+        "\uD83D\uDC66\uD83C\uDFFF",
+      unicode
+    );
+    assertEquals(
+      "&#128516; &#128516; &#128516; &#128516; &#128102; &#128102; &#128102;",
+      decimal
+    );
+    assertEquals(
+      "&#x1f604; &#x1f604; &#x1f604; &#x1f604; &#x1f466; &#x1f466; &#x1f466;",
+      hexadecimal
+    );
+  }
+
+  @Test
+  public void normalize_gives_the_same_result_as_two_passes() {
+    // GIVEN
+    String str = "An :grinning:awesome &#x1f466;string &#128516;with " +
+      "a :family_man_woman_boy: few \uD83D\uDE09emojis! 12:30 &amp; :unknown:";
+
+    // WHEN
+    String result = EmojiParser.normalize(str, Representation.ALIAS);
+
+    // THEN
+    assertEquals(
+      EmojiParser.parseToAliases(EmojiParser.parseToUnicode(str)),
+      result
+    );
+  }
+
+  @Test
+  public void normalize_returns_the_input_when_nothing_matches() {
+    // GIVEN
+    String str = "No emoji: 12:30 &amp; :unknown:";
+
+    // WHEN
+    String result = EmojiParser.normalize(str, Representation.UNICODE);
+
+    // THEN
+    assertSame(str, result);
+  }
+
   @Test
   public void test_with_a_new_flag() {
     String input = "Cuba has a new flag! :cu:";
@@ -516,6 +695,89 @@ public class EmojiParserTest {
 
   }
 
+  @Test
+  public void transforms_return_the_input_when_nothing_matches() {
+    // GIVEN
+    String str = "A string: no emoji & no alias, only :colons: and &#38;";
+    List<Emoji> emojis = new ArrayList<Emoji>(EmojiManager.getAll());
+
+    // WHEN
+    // THEN
+    assertSame(str, EmojiParser.parseToAliases(str));
+    assertSame(str, EmojiParser.parseToAliases(str, FitzpatrickAction.IGNORE));
+    assertSame(str, EmojiParser.parseToHtmlDecimal(str));
+    assertSame(str, EmojiParser.parseToHtmlHexadecimal(str));
+    assertSame(str, EmojiParser.parseToUnicode(str));
+    assertSame(str, EmojiParser.replaceAllEmojis(str, "?"));
+    assertSame(str, EmojiParser.removeAllEmojis(str));
+    assertSame(str, EmojiParser.removeEmojis(str, emojis));
+    assertSame(str, EmojiParser.removeAllEmojisExcept(str, emojis));
+  }
+
+  @Test
+  public void removeEmojis_does_not_read_the_emojis_without_a_match() {
+    // GIVEN
+    String str = "A string without any emoji";
+    Collection<Emoji> emojis = new AbstractCollection<Emoji>() {
+      public Iterator<Emoji> iterator() {
+        throw new AssertionError("The emojis should not be read");
+      }
+
+      public int size() {
+        throw new AssertionError("The emojis should not be read");
+      }
+    };
+
+    // WHEN
+    // THEN
+    assertSame(str, EmojiParser.removeEmojis(str, emojis));
+    assertSame(str, EmojiParser.removeAllEmojisExcept(str, emojis));
+  }
+
+  @Test
+  public void parseToUnicode_with_a_colon_before_the_first_alias() {
+    // GIVEN
+    String str = "Note: :smile: &#128516;";
+
+    // WHEN
+    String result = EmojiParser.parseToUnicode(str);
+
+    // THEN
+    assertEquals("Note: 😄 😄", result);
+  }
+
+  @Test
+  public void extractEmojis_reuses_the_cached_unicode_with_fitzpatrick() {
+    // GIVEN
+    Emoji surfer = EmojiManager.getForAlias("surfer");
+    String str = surfer.getUnicode(Fitzpatrick.TYPE_3) + " and " +
+      surfer.getUnicode(Fitzpatrick.TYPE_3);
+
+    // WHEN
+    List<String> result = EmojiParser.extractEmojis(str);
+
+    // THEN
+    assertEquals(2, result.size());
+    assertSame(surfer.getUnicode(Fitzpatrick.TYPE_3), result.get(0));
+    assertSame(result.get(0), result.get(1));
+  }
+
+  @Test
+  public void parseToAliases_with_every_fitzpatrick_action() {
+    // GIVEN
+    String str = "\uD83D\uDC66\uD83C\uDFFF \uD83D\uDC66";
+
+    // WHEN
+    String parse = EmojiParser.parseToAliases(str, FitzpatrickAction.PARSE);
+    String remove = EmojiParser.parseToAliases(str, FitzpatrickAction.REMOVE);
+    String ignore = EmojiParser.parseToAliases(str, FitzpatrickAction.IGNORE);
+
+    // THEN
+    assertEquals(":boy|type_6: :boy:", parse);
+    assertEquals(":boy: :boy:", remove);
+    assertEquals(":boy:\uD83C\uDFFF :boy:", ignore);
+  }
+
   @Test
   public void extractEmojis_withFitzpatrickModifiers() {
     // GIVEN
@@ -550,4 +812,89 @@ public class EmojiParserTest {
     // THEN
     assertEquals(":first_place_medal:", result);
   }
+
+  @Test
+  public void parseToAliases_with_a_StringBuilder() {
+    // GIVEN
+    StringBuilder str = new StringBuilder("An 😀awesome 😃string ")
+      .append("with a few 😉emojis!");
+
+    // WHEN
+    String result = EmojiParser.parseToAliases(str);
+
+    // THEN
+    assertEquals(
+      "An :grinning:awesome :smiley:string with a few :wink:emojis!",
+      result
+    );
+  }
+
+  @Test
+  public void parseToUnicode_with_html_padded_with_zeros() {
+    // GIVEN
+    String str = "&#0128516; &#x01f604; &#00000128516;";
+
+    // WHEN
+    String result = EmojiParser.parseToUnicode(str);
+
+    // THEN
+    assertEquals("😄 😄 &#00000128516;", result);
+  }
+
+  @Test
+  public void parseToUnicode_with_a_CharBuffer() {
+    // GIVEN
+    CharBuffer str = CharBuffer.wrap("--An :grinning:awesome &#128516;string")
+      .subSequence(2, 38);
+
+    // WHEN
+    String result = EmojiParser.parseToUnicode(str);
+
+    // THEN
+    assertEquals("An 😀awesome 😄string", result);
+  }
+
+  @Test
+  public void parseToAliases_appends_to_the_given_Appendable() throws IOException {
+    // GIVEN
+    String str = "An 😀awesome 👦🏿string";
+    StringWriter writer = new StringWriter();
+    writer.write("> ");
+
+    // WHEN
+    EmojiParser.parseToAliases(str, writer);
+
+    // THEN
+    assertEquals("> An :grinning:awesome :boy|type_6:string", writer.toString());
+  }
+
+  @Test
+  public void parseToUnicode_appends_to_the_given_Appendable() throws IOException {
+    // GIVEN
+    String str = "An :grinning:awesome &#128516;string";
+    StringBuilder sb = new StringBuilder();
+
+    // WHEN
+    EmojiParser.parseToUnicode(str, sb);
+
+    // THEN
+    assertEquals("An 😀awesome 😄string", sb.toString());
+  }
+
+  @Test
+  public void parseFromUnicode_with_an_EmojiAppender() {
+    // GIVEN
+    String str = "An 😀awesome 👦🏿string";
+    EmojiAppender appender = new EmojiAppender() {
+      public void append(EmojiMatcher match, Appendable out) throws IOException {
+        out.append('[').append(match.emoji().getDescription()).append(']');
+      }
+    };
+
+    // WHEN
+    String result = EmojiParser.parseFromUnicode(str, appender);
+
+    // THEN
+    assertEquals("An [grinning face]awesome [boy]string", result);
+  }
 }
@@ -0,0 +1,173 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiSetTest {
+  private static final Emoji SMILE = EmojiManager.getForAlias("smile");
+  private static final Emoji BOY = EmojiManager.getForAlias("boy");
+  private static final Emoji CAT = EmojiManager.getForAlias("cat");
+
+  @Test
+  public void add_contains_and_remove() {
+    // GIVEN
+    EmojiSet set = new EmojiSet();
+
+    // WHEN
+    boolean added = set.add(SMILE);
+    boolean addedTwice = set.add(SMILE);
+    set.add(BOY);
+    boolean removed = set.remove(BOY);
+
+    // THEN
+    assertTrue(added);
+    assertFalse(addedTwice);
+    assertTrue(removed);
+    assertEquals(1, set.size());
+    assertTrue(set.contains(SMILE));
+    assertFalse(set.contains(BOY));
+    assertFalse(set.contains("smile"));
+    assertFalse(set.contains(null));
+  }
+
+  @Test
+  public void contains_an_equal_emoji_created_outside_of_the_manager()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    EmojiSet set = new EmojiSet(Arrays.asList(SMILE));
+    Emoji copy = new Emoji(
+      "copy",
+      false,
+      new ArrayList<String>(),
+      new ArrayList<String>(),
+      SMILE.getUnicode().getBytes("UTF-8")
+    );
+
+    // WHEN
+    boolean contains = set.contains(copy);
+
+    // THEN
+    assertTrue(contains);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void add_an_unknown_emoji_throws_an_exception() {
+    // GIVEN
+    Emoji unknown = new Emoji(
+      "unknown",
+      false,
+      new ArrayList<String>(),
+      new ArrayList<String>(),
+      "abc".getBytes()
+    );
+
+    // WHEN
+    new EmojiSet().add(unknown);
+
+    // THEN
+    // An exception is thrown
+  }
+
+  @Test
+  public void bulk_operations_with_another_EmojiSet() {
+    // GIVEN
+    EmojiSet set = new EmojiSet(Arrays.asList(SMILE, BOY));
+    EmojiSet other = new EmojiSet(Arrays.asList(BOY, CAT));
+
+    // WHEN
+    EmojiSet union = new EmojiSet(set);
+    union.addAll(other);
+    EmojiSet intersection = new EmojiSet(set);
+    intersection.retainAll(other);
+    EmojiSet difference = new EmojiSet(set);
+    difference.removeAll(other);
+
+    // THEN
+    assertEquals(new HashSet<Emoji>(Arrays.asList(SMILE, BOY, CAT)), union);
+    assertEquals(3, union.size());
+    assertEquals(new HashSet<Emoji>(Arrays.asList(BOY)), intersection);
+    assertEquals(1, intersection.size());
+    assertEquals(new HashSet<Emoji>(Arrays.asList(SMILE)), difference);
+    assertEquals(1, difference.size());
+  }
+
+  @Test
+  public void bulk_operations_with_a_tag_set() {
+    // GIVEN
+    EmojiSet set = new EmojiSet(Arrays.asList(SMILE, BOY, CAT));
+    EmojiSet happy = EmojiManager.getTagSet("happy");
+
+    // WHEN
+    set.retainAll(happy);
+    EmojiSet copy = new EmojiSet(happy);
+    copy.add(BOY);
+
+    // THEN
+    assertEquals(new HashSet<Emoji>(Arrays.asList(SMILE)), set);
+    assertEquals(happy.size() + 1, copy.size());
+    assertEquals(4, happy.size());
+    assertFalse(happy.contains(BOY));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void a_tag_set_cannot_be_modified() {
+    // GIVEN
+    EmojiSet happy = EmojiManager.getTagSet("happy");
+
+    // WHEN
+    happy.retainAll(new EmojiSet());
+
+    // THEN
+    // An exception is thrown
+  }
+
+  @Test
+  public void iterator_returns_the_emojis_and_supports_remove() {
+    // GIVEN
+    EmojiSet set = new EmojiSet(Arrays.asList(SMILE, BOY, CAT));
+
+    // WHEN
+    List<Emoji> emojis = new ArrayList<Emoji>();
+    for (Iterator<Emoji> it = set.iterator(); it.hasNext(); ) {
+      Emoji emoji = it.next();
+      emojis.add(emoji);
+      if (emoji.equals(BOY)) {
+        it.remove();
+      }
+    }
+
+    // THEN
+    assertEquals(3, emojis.size());
+    assertTrue(emojis.containsAll(Arrays.asList(SMILE, BOY, CAT)));
+    assertEquals(2, set.size());
+    assertFalse(set.contains(BOY));
+  }
+
+  @Test
+  public void removeEmojis_with_an_EmojiSet() {
+    // GIVEN
+    String str = "An 😄awesome 👦🏿string with a few 🐱emojis!";
+    EmojiSet set = new EmojiSet(Arrays.asList(SMILE, BOY));
+
+    // WHEN
+    String removed = EmojiParser.removeEmojis(str, set);
+    String kept = EmojiParser.removeAllEmojisExcept(str, set);
+
+    // THEN
+    assertEquals("An awesome string with a few 🐱emojis!", removed);
+    assertEquals("An 😄awesome 👦🏿string with a few emojis!", kept);
+  }
+}
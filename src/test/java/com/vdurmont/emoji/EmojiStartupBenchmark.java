@@ -0,0 +1,58 @@
+package com.vdurmont.emoji;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the startup cost of the library. It is not run by the tests: the
+ * class initialization of the {@link EmojiManager} happens once per JVM, so
+ * run it in a fresh JVM after mvn test-compile:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *   com.vdurmont.emoji.EmojiStartupBenchmark
+ * </pre>
+ * It prints the time taken by the class initialization of the
+ * {@link EmojiManager}, then the best time of a warm
+ * {@link EmojiLoader#loadEmojis(InputStream)} of the database.
+ */
+public class EmojiStartupBenchmark {
+  private static final int WARM_RUNS = 50;
+
+  public static void main(String[] args) throws Exception {
+    long start = System.nanoTime();
+    Class.forName("com.vdurmont.emoji.EmojiManager");
+    long init = System.nanoTime() - start;
+    System.out.println(
+      "EmojiManager initialization: " + toMillis(init) + " ms (" +
+      EmojiManager.getAll().size() + " emojis)"
+    );
+
+    byte[] database = readDatabase();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < WARM_RUNS; i++) {
+      start = System.nanoTime();
+      EmojiLoader.loadEmojis(new ByteArrayInputStream(database));
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.println("Warm database load: " + toMillis(best) + " ms");
+  }
+
+  private static String toMillis(long nanos) {
+    return String.valueOf(nanos / 10000 / 100.0);
+  }
+
+  private static byte[] readDatabase() throws IOException {
+    InputStream stream =
+      EmojiStartupBenchmark.class.getResourceAsStream("/emojis.json");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    stream.close();
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,154 @@
+package com.vdurmont.emoji;
+
+import com.vdurmont.emoji.EmojiParser.FitzpatrickAction;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class EmojiStreamParserTest {
+  private static final String UNICODE = "An 😀awesome 👦🏿string " +
+    "👨‍👩‍👦 with a few 😉emojis!👩‍❤️‍💋‍👩";
+  private static final String ALIASES = "An :grinning:awesome :boy|type_6:" +
+    "string &#128516;&#x1f609; with a few :family_man_woman_boy:emojis!";
+
+  @Test
+  public void parseToAliases_gives_the_same_result_as_the_EmojiParser()
+    throws IOException {
+    // GIVEN
+    String str = repeat(UNICODE, 200);
+    StringWriter writer = new StringWriter();
+
+    // WHEN
+    EmojiStreamParser.parseToAliases(
+      new StringReader(str),
+      FitzpatrickAction.PARSE,
+      writer
+    );
+
+    // THEN
+    assertEquals(EmojiParser.parseToAliases(str), writer.toString());
+  }
+
+  @Test
+  public void parseFromUnicode_with_emojis_straddling_the_buffer_boundaries()
+    throws IOException {
+    // GIVEN
+    String str = repeat(UNICODE, 50);
+    String expected = EmojiParser.removeAllEmojis(str);
+
+    for (int bufferSize = 1; bufferSize < 60; bufferSize++) {
+      StringWriter writer = new StringWriter();
+
+      // WHEN
+      EmojiStreamParser.parseFromUnicode(
+        new OneCharReader(str),
+        EmojiParser.replacementAppender(""),
+        writer,
+        bufferSize
+      );
+
+      // THEN
+      assertEquals("Buffer size " + bufferSize, expected, writer.toString());
+    }
+  }
+
+  @Test
+  public void parseToUnicode_with_aliases_straddling_the_buffer_boundaries()
+    throws IOException {
+    // GIVEN
+    String str = repeat(ALIASES, 50);
+    String expected = EmojiParser.parseToUnicode(str);
+
+    for (int bufferSize = 1; bufferSize < 300; bufferSize += 7) {
+      StringWriter writer = new StringWriter();
+
+      // WHEN
+      EmojiStreamParser.parseToUnicode(
+        new OneCharReader(str),
+        writer,
+        bufferSize
+      );
+
+      // THEN
+      assertEquals("Buffer size " + bufferSize, expected, writer.toString());
+    }
+  }
+
+  @Test
+  public void parseToUnicode_with_html_padded_with_zeros() throws IOException {
+    // GIVEN
+    StringBuilder zeros = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      zeros.append('0');
+    }
+    String str = "ab&#" + zeros + "128516; &#0128516; &#x01f604;";
+    String expected = EmojiParser.parseToUnicode(str);
+
+    for (int bufferSize = 1; bufferSize < 160; bufferSize += 7) {
+      StringWriter writer = new StringWriter();
+
+      // WHEN
+      EmojiStreamParser.parseToUnicode(
+        new OneCharReader(str),
+        writer,
+        bufferSize
+      );
+
+      // THEN
+      assertEquals("Buffer size " + bufferSize, expected, writer.toString());
+    }
+  }
+
+  @Test
+  public void parseToUnicode_with_an_empty_reader() throws IOException {
+    // GIVEN
+    StringWriter writer = new StringWriter();
+
+    // WHEN
+    EmojiStreamParser.parseToUnicode(new StringReader(""), writer);
+
+    // THEN
+    assertEquals("", writer.toString());
+  }
+
+  private static String repeat(String str, int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append(str).append(i);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns at most one char per read, like a slow network stream.
+   */
+  private static class OneCharReader extends Reader {
+    private final String str;
+    private int index;
+
+    private OneCharReader(String str) {
+      this.str = str;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (index == str.length()) {
+        return -1;
+      }
+      cbuf[off] = str.charAt(index++);
+      return 1;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiTagQueryTest {
+  @Test
+  public void tag_matches_the_emojis_of_getForTag() {
+    // GIVEN
+    EmojiTagQuery query = EmojiTagQuery.tag("happy");
+
+    // WHEN
+    Set<Emoji> emojis = query.emojis();
+
+    // THEN
+    assertEquals(EmojiManager.getForTag("happy"), emojis);
+    assertTrue(query.matches(EmojiManager.getForAlias("smile")));
+    assertFalse(query.matches(EmojiManager.getForAlias("cat")));
+  }
+
+  @Test
+  public void allOf_anyOf_and_andNot_combine_the_tags() {
+    // GIVEN
+    Set<Emoji> happy = EmojiManager.getForTag("happy");
+    Set<Emoji> joy = EmojiManager.getForTag("joy");
+
+    Set<Emoji> and = new HashSet<Emoji>(happy);
+    and.retainAll(joy);
+    Set<Emoji> or = new HashSet<Emoji>(happy);
+    or.addAll(joy);
+    Set<Emoji> andNot = new HashSet<Emoji>(happy);
+    andNot.removeAll(joy);
+
+    // WHEN
+    Set<Emoji> allOf = EmojiTagQuery.allOf("happy", "joy").emojis();
+    Set<Emoji> anyOf = EmojiTagQuery.anyOf("happy", "joy").emojis();
+    Set<Emoji> without = EmojiTagQuery.tag("happy")
+      .andNot(EmojiTagQuery.tag("joy"))
+      .emojis();
+
+    // THEN
+    assertEquals(and, allOf);
+    assertEquals(or, anyOf);
+    assertEquals(andNot, without);
+  }
+
+  @Test
+  public void not_matches_the_other_emojis() {
+    // GIVEN
+    EmojiTagQuery query = EmojiTagQuery.tag("happy").not();
+
+    // WHEN
+    Set<Emoji> emojis = query.emojis();
+
+    // THEN
+    assertEquals(
+      EmojiManager.getAll().size() - EmojiManager.getForTag("happy").size(),
+      emojis.size()
+    );
+    assertFalse(emojis.contains(EmojiManager.getForAlias("smile")));
+    assertTrue(emojis.contains(EmojiManager.getForAlias("cat")));
+  }
+
+  @Test
+  public void queries_without_tags_or_with_an_unknown_tag() {
+    // WHEN
+    // THEN
+    assertEquals(EmojiManager.getAll().size(), EmojiTagQuery.allOf().emojis().size());
+    assertTrue(EmojiTagQuery.anyOf().emojis().isEmpty());
+    assertTrue(EmojiTagQuery.tag("jkahsgdfjksghfjkshf").emojis().isEmpty());
+  }
+}
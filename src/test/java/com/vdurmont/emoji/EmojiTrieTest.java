@@ -0,0 +1,83 @@
+package com.vdurmont.emoji;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiTrieTest {
+  @Test
+  public void cursor_finds_the_emojis_while_walking_a_sequence() {
+    // GIVEN
+    String family = "👨‍👩‍👦";
+    EmojiTrie.Cursor cursor = EmojiManager.EMOJI_TRIE.cursor();
+
+    // WHEN
+    Emoji shortest = null;
+    Emoji longest = null;
+    for (int i = 0; i < family.length(); i++) {
+      assertTrue(cursor.next(family.charAt(i)));
+      if (shortest == null) {
+        shortest = cursor.getEmoji();
+      }
+      if (cursor.getEmoji() != null) {
+        longest = cursor.getEmoji();
+      }
+    }
+
+    // THEN
+    assertEquals(EmojiManager.getForAlias("man"), shortest);
+    assertEquals(EmojiManager.getForAlias("family_man_woman_boy"), longest);
+  }
+
+  @Test
+  public void cursor_stays_dead_until_reset() {
+    // GIVEN
+    EmojiTrie.Cursor cursor = EmojiManager.EMOJI_TRIE.cursor();
+
+    // WHEN
+    boolean first = cursor.next('a');
+    boolean second = cursor.next('\uD83D');
+
+    // THEN
+    assertFalse(first);
+    assertFalse(second);
+    assertNull(cursor.getEmoji());
+    assertTrue(cursor.reset().next('\uD83D'));
+  }
+
+  @Test
+  public void isFirstChar_is_true_only_for_the_chars_that_start_an_emoji() {
+    // GIVEN
+    EmojiTrie trie = EmojiManager.EMOJI_TRIE;
+
+    // WHEN
+
+    // THEN
+    assertTrue(trie.isFirstChar('\uD83D'));
+    assertTrue(trie.isFirstChar('#'));
+    assertTrue(trie.isFirstChar('1'));
+    assertFalse(trie.isFirstChar('a'));
+    assertFalse(trie.isFirstChar(' '));
+  }
+
+  @Test
+  public void aliases_matches_every_alias_of_every_emoji() {
+    // GIVEN
+    EmojiTrie trie = EmojiTrie.aliases(EmojiManager.getAll());
+
+    // WHEN
+    // THEN
+    for (Emoji emoji : EmojiManager.getAll()) {
+      for (String alias : emoji.getAliases()) {
+        assertEquals(EmojiManager.getForAlias(alias), trie.getEmoji(alias));
+      }
+    }
+    assertNull(trie.getEmoji("smil"));
+  }
+}
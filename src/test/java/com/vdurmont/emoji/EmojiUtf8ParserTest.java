@@ -0,0 +1,112 @@
+package com.vdurmont.emoji;
+
+import com.vdurmont.emoji.EmojiUtf8Parser.ByteCandidate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class EmojiUtf8ParserTest {
+  @Test
+  public void containsEmoji_with_an_emoji_returns_true()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    byte[] bytes = "An 😀awesome string".getBytes("UTF-8");
+
+    // WHEN
+    boolean containsEmoji = EmojiUtf8Parser.containsEmoji(bytes);
+
+    // THEN
+    assertTrue(containsEmoji);
+  }
+
+  @Test
+  public void containsEmoji_without_emoji_returns_false()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    byte[] bytes = "An awesome string, été 1".getBytes("UTF-8");
+
+    // WHEN
+    boolean containsEmoji = EmojiUtf8Parser.containsEmoji(bytes);
+
+    // THEN
+    assertFalse(containsEmoji);
+  }
+
+  @Test
+  public void findEmojis_returns_the_byte_offsets_of_the_emojis()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    byte[] bytes = "é😀 👦🏿👨‍👩‍👦".getBytes("UTF-8");
+
+    // WHEN
+    List<ByteCandidate> candidates = EmojiUtf8Parser.findEmojis(bytes);
+
+    // THEN
+    assertEquals(3, candidates.size());
+    assertEquals(EmojiManager.getForAlias("grinning"), candidates.get(0).getEmoji());
+    assertEquals(2, candidates.get(0).getEmojiStartIndex());
+    assertEquals(6, candidates.get(0).getFitzpatrickEndIndex());
+    assertNull(candidates.get(0).getFitzpatrick());
+    assertEquals(EmojiManager.getForAlias("boy"), candidates.get(1).getEmoji());
+    assertEquals(7, candidates.get(1).getEmojiStartIndex());
+    assertEquals(11, candidates.get(1).getEmojiEndIndex());
+    assertEquals(Fitzpatrick.TYPE_6, candidates.get(1).getFitzpatrick());
+    assertEquals(15, candidates.get(1).getFitzpatrickEndIndex());
+    assertEquals(
+      EmojiManager.getForAlias("family_man_woman_boy"),
+      candidates.get(2).getEmoji()
+    );
+    assertEquals(bytes.length, candidates.get(2).getFitzpatrickEndIndex());
+  }
+
+  @Test
+  public void removeAllEmojis_writes_the_bytes_without_the_emojis()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    ByteBuffer in = ByteBuffer.wrap(
+      ("An 😀awesome 😃string 😄with " +
+        "a 👦🏿few 😉emojis!").getBytes("UTF-8")
+    );
+    ByteBuffer out = ByteBuffer.allocate(in.remaining());
+
+    // WHEN
+    EmojiUtf8Parser.removeAllEmojis(in, out);
+
+    // THEN
+    assertFalse(in.hasRemaining());
+    out.flip();
+    assertEquals(
+      "An awesome string with a few emojis!",
+      new String(out.array(), 0, out.limit(), "UTF-8")
+    );
+  }
+
+  @Test
+  public void replaceAllEmojis_only_processes_the_remaining_bytes()
+    throws UnsupportedEncodingException {
+    // GIVEN
+    byte[] bytes = "😀 skipped, 😀 replaced".getBytes("UTF-8");
+    ByteBuffer in = ByteBuffer.wrap(bytes, 4, bytes.length - 4);
+    ByteBuffer out = ByteBuffer.allocate(bytes.length);
+
+    // WHEN
+    EmojiUtf8Parser.replaceAllEmojis(in, out, ":)".getBytes("UTF-8"));
+
+    // THEN
+    out.flip();
+    assertEquals(
+      " skipped, :) replaced",
+      new String(out.array(), 0, out.limit(), "UTF-8")
+    );
+  }
+}